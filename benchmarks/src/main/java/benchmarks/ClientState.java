@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import implementations.dataset.DatasetImplementation;
+import benchmarks.simulator.LearningOrchestraSimulator;
+import benchmarks.simulator.SimulatorOptions;
+import implementations.transform.datatype.DataTypeImplementation;
+import implementations.transform.projection.ProjectionImplementation;
+import implementations.util.ClientConfig;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class starts the simulator and the clients shared by the benchmarks of a trial. The latency and job
+ * delay parameters make the simulator behave like a remote cluster instead of a loopback server.
+ */
+@State(Scope.Benchmark)
+public class ClientState {
+
+    public static final String DATASET = "microservice_dataset";
+    public static final String DATASET_NAME = "titanic";
+
+    /**
+     * The JDK server of the simulator writes the headers and the body separately, without this JVM option every
+     * response waits for a delayed ACK. The benchmarks running the simulator append it to their forks.
+     */
+    public static final String SERVER_NODELAY = "-Dsun.net.httpserver.nodelay=true";
+
+    @Param({"1000"})
+    public int rowsPerDataset;
+
+    @Param({"0"})
+    public long latency;
+
+    @Param({"0"})
+    public long jobDelay;
+
+    public LearningOrchestraSimulator simulator;
+    public ClientConfig config;
+    public DatasetImplementation dataset;
+    public DataTypeImplementation dataType;
+    public ProjectionImplementation projection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        simulator = new LearningOrchestraSimulator(new SimulatorOptions()
+                .withRowsPerDataset(rowsPerDataset)
+                .withLatency(latency, latency / 5)
+                .withJobDelay(jobDelay));
+        simulator.addDataset(DATASET_NAME);
+        config = simulator.config();
+
+        Supplier<ClientConfig> configSupplier = () -> config;
+        dataset = new DatasetImplementation(configSupplier);
+        dataType = new DataTypeImplementation(configSupplier);
+        projection = new ProjectionImplementation(configSupplier);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulator.close();
+    }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.gson.JsonObject;
+
+import implementations.util.CborCodec;
+import implementations.util.Codec;
+import implementations.util.Codecs;
+import implementations.util.JsonCodec;
+import implementations.util.ResultWriter;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class measures how many searchDatasetContent pages per second every codec decodes. The pages are
+ * encoded once, so only decoding is measured and no network is involved. Rows of strings are datasets as inserted
+ * from CSV, rows of numbers are datasets after a type change.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CodecBenchmark {
+
+    @Param({JsonCodec.MEDIA_TYPE, CborCodec.MEDIA_TYPE})
+    public String mediaType;
+
+    @Param({"strings", "numbers"})
+    public String values;
+
+    @Param({"1000"})
+    public int pageSize;
+
+    private Codec codec;
+    private byte[] page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        codec = Codecs.forContentType(mediaType);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (ResultWriter writer = codec.openResults(outputStream)) {
+            writer.write(metadata());
+            for (int id = 1; id <= pageSize; id++)
+                writer.write("numbers".equals(values) ? numbers(id) : strings(id));
+        }
+        page = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public JsonObject decodePage(Blackhole blackhole) throws IOException {
+        return codec.forEachResult(new ByteArrayInputStream(page), blackhole::consume);
+    }
+
+    private static JsonObject metadata() {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("_id", 0);
+        metadata.addProperty("datasetName", ClientState.DATASET_NAME);
+        metadata.addProperty("finished", "true");
+        metadata.addProperty("timeCreated", "2020-10-10T10:10:10-03:00");
+        metadata.addProperty("type", "dataset/csv");
+        metadata.addProperty("url", "https://example.com/titanic.csv");
+        return metadata;
+    }
+
+    private static JsonObject strings(int id) {
+        JsonObject row = new JsonObject();
+        row.addProperty("_id", id);
+        row.addProperty("id", String.valueOf(id));
+        row.addProperty("name", "passenger " + id);
+        row.addProperty("age", String.valueOf(18 + id % 60));
+        row.addProperty("fare", String.valueOf((id % 500) / 4.0));
+        row.addProperty("survived", id % 3 == 0 ? "1" : "0");
+        return row;
+    }
+
+    private static JsonObject numbers(int id) {
+        JsonObject row = new JsonObject();
+        row.addProperty("_id", id);
+        row.addProperty("id", id);
+        row.addProperty("name", "passenger " + id);
+        row.addProperty("age", 18 + id % 60);
+        row.addProperty("fare", (id % 500) / 4.0 + id * 1e-4);
+        row.addProperty("survived", id % 3 == 0 ? 1 : 0);
+        return row;
+    }
+}
@@ -0,0 +1,125 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import implementations.dataset.DatasetImplementation;
+import benchmarks.simulator.LearningOrchestraSimulator;
+import benchmarks.simulator.SimulatorOptions;
+import implementations.util.ClientConfig;
+import implementations.util.ContentEncoding;
+import implementations.util.JsonSerialization;
+import implementations.util.RequestBody;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class measures the time to fetch a page of dataset content with and without gzip compression of
+ * the response, at several bandwidths. The simulator compresses whenever the client accepts it. Without a bandwidth
+ * limit the loopback is free and the run shows the CPU cost of compressing and decompressing, with a limit it shows
+ * the transfer time saved. The request side is measured without the network, from the serialized request to the
+ * compressed bytes on the connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = ClientState.SERVER_NODELAY)
+@State(Scope.Benchmark)
+public class CompressionBenchmark {
+
+    private static final OutputStream DISCARD = new OutputStream() {
+        @Override
+        public void write(int value) {
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+        }
+    };
+
+    @Param({ContentEncoding.IDENTITY, ContentEncoding.GZIP})
+    public String acceptEncoding;
+
+    /**
+     * bytes per second of every response, 0 for the loopback, 12.5 MB/s is 100 Mbit/s and 1.25 MB/s is 10 Mbit/s
+     */
+    @Param({"0", "12500000", "1250000"})
+    public long bandwidth;
+
+    @Param({"1000"})
+    public int pageSize;
+
+    private LearningOrchestraSimulator simulator;
+    private DatasetImplementation dataset;
+    private JsonObject request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        simulator = new LearningOrchestraSimulator(new SimulatorOptions()
+                .withRowsPerDataset(pageSize)
+                .withCompression(true)
+                .withBandwidth(bandwidth));
+        simulator.addDataset(ClientState.DATASET_NAME);
+
+        ClientConfig config = simulator.config().with(ClientConfig.ACCEPT_ENCODING, acceptEncoding);
+        dataset = new DatasetImplementation(() -> config);
+
+        // a request of pageSize rows, like the values sent to update a dataset
+        JsonArray rows = new JsonArray();
+        for (int index = 1; index <= pageSize; index++) {
+            JsonObject row = new JsonObject();
+            row.addProperty("_id", index);
+            row.addProperty("name", "passenger " + index);
+            row.addProperty("age", String.valueOf(index % 80));
+            row.addProperty("fare", String.valueOf(index * 0.25));
+            rows.add(row);
+        }
+        request = new JsonObject();
+        request.addProperty("datasetName", ClientState.DATASET_NAME);
+        request.add("values", rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        simulator.close();
+    }
+
+    @Benchmark
+    public JsonObject searchDatasetContent() {
+        return dataset.searchDatasetContent(ClientState.DATASET_NAME, pageSize, 0);
+    }
+
+    /**
+     * @return the bytes sent, as the client sends a request over the compression threshold: the length is counted to
+     * compare it with the threshold, then the body is compressed once into a spool and written from it
+     */
+    @Benchmark
+    public long sendCompressedRequest() throws IOException {
+        RequestBody body = JsonSerialization.toRequestBody(request);
+        if (body.contentLength() <= 0) return 0;
+
+        try (ContentEncoding.SpooledBody compressed = ContentEncoding.gzip(body)) {
+            compressed.writeTo(DISCARD);
+            return compressed.contentLength();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+import implementations.transform.projection.JoinProgressListener;
+import implementations.transform.projection.ProjectionImplementation;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class compares joining shards as a tree of parallel pairwise joins with joining them one after
+ * the other. Run it with a job delay, for instance -p jobDelay=200, otherwise every join finishes at once and
+ * both strategies only measure the requests.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = ClientState.SERVER_NODELAY)
+@State(Scope.Benchmark)
+public class JoinBenchmark {
+
+    private static final AtomicLong JOINS = new AtomicLong();
+
+    @Param({"16", "64"})
+    public int shards;
+
+    @Param({"8"})
+    public int maxConcurrency;
+
+    private final List<String> shardNames = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(ClientState state) {
+        for (int index = 0; index < shards; index++) {
+            String shardName = "shard_" + index;
+            state.simulator.addDataset(shardName);
+            shardNames.add(shardName);
+        }
+    }
+
+    @Benchmark
+    public JsonObject tree(ClientState state) {
+        return state.projection.joinDatasetsFuture(shardNames, "tree_" + JOINS.incrementAndGet(), false,
+                maxConcurrency, JoinProgressListener.NONE).join();
+    }
+
+    @Benchmark
+    public JsonObject leftFold(ClientState state) {
+        ProjectionImplementation projection = state.projection;
+        String joined = shardNames.get(0);
+        JsonObject response = null;
+        for (int index = 1; index < shardNames.size(); index++) {
+            String next = "fold_" + JOINS.incrementAndGet();
+            response = projection.joinDatasetsSync(joined, shardNames.get(index),
+                    Collections.<String, String>emptyMap(), next, false);
+            joined = next;
+        }
+        return response;
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+import implementations.util.BatchAwaiter;
+import implementations.util.JobPoller;
+import implementations.util.MetadataCache;
+import implementations.util.NetworkCommunication;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class measures how long the client takes to notice that jobs are finished. The metadata cache is
+ * cleared before every invocation, so each one reaches the simulator.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = ClientState.SERVER_NODELAY)
+@State(Scope.Benchmark)
+public class PollingBenchmark {
+
+    @Param({"100"})
+    public int datasets;
+
+    private final List<String> datasetNames = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setUp(ClientState state) {
+        for (int index = 0; index < datasets; index++) {
+            String datasetName = "pending_" + index;
+            state.simulator.addDataset(datasetName);
+            datasetNames.add(datasetName);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCache() {
+        MetadataCache.shared().invalidateAll();
+    }
+
+    @Benchmark
+    public JsonObject confirmAsync(ClientState state) {
+        return NetworkCommunication.confirmAsync(state.config, ClientState.DATASET, ClientState.DATASET_NAME);
+    }
+
+    @Benchmark
+    public int awaitEach(ClientState state) {
+        List<CompletableFuture<JsonObject>> futures = new ArrayList<>(datasetNames.size());
+        for (String datasetName : datasetNames)
+            futures.add(JobPoller.shared().awaitFinished(state.config, ClientState.DATASET, datasetName));
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return futures.size();
+    }
+
+    @Benchmark
+    public int awaitAll(ClientState state) {
+        Map<String, CompletableFuture<JsonObject>> futures =
+                BatchAwaiter.shared().awaitAll(state.config, ClientState.DATASET, datasetNames);
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0])).join();
+        return futures.size();
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class measures the dataset, datatype and projection calls end to end against the simulator. Sample time
+ * mode reports the latency percentiles, run it with -prof gc for the allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = ClientState.SERVER_NODELAY)
+@State(Scope.Thread)
+public class RequestBenchmark {
+
+    private static final AtomicLong INSERTED = new AtomicLong();
+
+    private final Map<String, String> types = new LinkedHashMap<>();
+    private int page;
+
+    public RequestBenchmark() {
+        types.put("age", "number");
+        types.put("fare", "number");
+        types.put("name", "string");
+    }
+
+    @Benchmark
+    public JsonObject insertDatasetSync(ClientState state) {
+        // the simulator rejects duplicated names, like Learning Orchestra
+        return state.dataset.insertDatasetSync("https://example.com/titanic.csv",
+                "inserted_" + INSERTED.incrementAndGet());
+    }
+
+    @Benchmark
+    public JsonObject searchDatasetContent(ClientState state) {
+        page = (page + 1) % 50;
+        return state.dataset.searchDatasetContent(ClientState.DATASET_NAME, 20, page);
+    }
+
+    @Benchmark
+    public JsonObject updateDatasetTypeSync(ClientState state) {
+        return state.dataType.updateDatasetTypeSync(ClientState.DATASET_NAME, types);
+    }
+
+    @Benchmark
+    public JsonObject removeDatasetAttributesSync(ClientState state) {
+        return state.projection.removeDatasetAttributesSync("titanic_projection", ClientState.DATASET_NAME,
+                Collections.enumeration(Arrays.asList("name", "fare")), false);
+    }
+}
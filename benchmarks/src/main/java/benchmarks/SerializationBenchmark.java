@@ -0,0 +1,99 @@
+package benchmarks;
+
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+
+import implementations.dataset.DatasetRequest;
+import implementations.dataset.Result;
+import implementations.transform.datatype.TypeChangeRequest;
+import implementations.util.JsonSerialization;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class compares a Gson instance built per call, as the client used to do, with the shared
+ * serialization component. No network is involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private final JsonArray metadataRows = new JsonParser().parse("[{\"_id\":0,\"datasetName\":\"titanic\","
+            + "\"fields\":[\"id\",\"name\",\"age\",\"fare\",\"survived\"],\"finished\":\"true\","
+            + "\"timeCreated\":\"2020-10-10T10:10:10-03:00\",\"type\":\"dataset/csv\","
+            + "\"url\":\"https://example.com/titanic.csv\"}]").getAsJsonArray();
+
+    private final JsonObject request = new JsonObject();
+    private final DatasetRequest datasetRequest = new DatasetRequest("titanic", "https://example.com/titanic.csv");
+    private final Map<String, String> types = new LinkedHashMap<>();
+
+    public SerializationBenchmark() {
+        request.addProperty("datasetName", "titanic");
+        request.addProperty("datasetURI", "https://example.com/titanic.csv");
+        types.put("age", "number");
+        types.put("fare", "number");
+        types.put("name", "string");
+    }
+
+    @Benchmark
+    public List<Result> parseMetadataPerCallGson() {
+        Type listType = new TypeToken<ArrayList<Result>>() {}.getType();
+        return new Gson().fromJson(metadataRows, listType);
+    }
+
+    @Benchmark
+    public List<Result> parseMetadataShared() {
+        return JsonSerialization.toResults(metadataRows);
+    }
+
+    @Benchmark
+    public byte[] encodeRequestPerCallGson() {
+        return new Gson().toJson(request).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] encodeRequestShared() {
+        return JsonSerialization.toBytes(request);
+    }
+
+    @Benchmark
+    public byte[] encodeDatasetRequest() {
+        return JsonSerialization.gson().toJson(datasetRequest).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JsonArray buildTypes() {
+        return JsonSerialization.types(types);
+    }
+
+    @Benchmark
+    public byte[] encodeTypeChangeRequest() {
+        return JsonSerialization.gson().toJson(new TypeChangeRequest("titanic", types))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
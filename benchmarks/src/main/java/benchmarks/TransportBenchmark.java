@@ -0,0 +1,75 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+import implementations.util.NetworkCommunication;
+import implementations.util.PooledHttpTransport;
+import implementations.util.UrlConnectionTransport;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class compares the connection pool against the HttpURLConnection baseline. Only POST and GET are
+ * measured, because HttpURLConnection rejects the PATCH method used by the datatype and projection calls.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = ClientState.SERVER_NODELAY)
+public class TransportBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class TransportState {
+
+        @Param({"pooled", "urlconnection"})
+        public String transport;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            NetworkCommunication.setTransport(
+                    "urlconnection".equals(transport) ? new UrlConnectionTransport() : new PooledHttpTransport());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            NetworkCommunication.setTransport(new PooledHttpTransport());
+        }
+    }
+
+    @Benchmark
+    public JsonObject jsonRequest(TransportState transport, ClientState state) {
+        JsonObject request = new JsonObject();
+        request.addProperty("datasetName", ClientState.DATASET_NAME);
+        request.addProperty("datasetURI", "https://example.com/titanic.csv");
+        return NetworkCommunication.jsonRequest(state.config, "POST", ClientState.DATASET, false, request);
+    }
+
+    @Benchmark
+    public JsonObject searchDatasetContent(TransportState transport, ClientState state) {
+        return state.dataset.searchDatasetContent(ClientState.DATASET_NAME, 20, 1);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public JsonObject searchDatasetContentConcurrent(TransportState transport, ClientState state) {
+        return state.dataset.searchDatasetContent(ClientState.DATASET_NAME, 20, 1);
+    }
+}
@@ -0,0 +1,699 @@
+package benchmarks.simulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import implementations.util.CborCodec;
+import implementations.util.ClientConfig;
+import implementations.util.ClientExecutors;
+import implementations.util.Codec;
+import implementations.util.Codecs;
+import implementations.util.JsonSerialization;
+import implementations.util.ResultWriter;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class simulates the Learning Orchestra REST API inside the JVM, on the loopback interface. It
+ * serves the dataset, datatype and projection microservices, dataset uploads included, over a shared in-memory
+ * store. Jobs stay unfinished for a configurable delay and every response can be delayed or failed, this way the
+ * concurrency, polling and paging of the client can be load tested without a cluster.
+ */
+public class LearningOrchestraSimulator implements Closeable {
+
+    public static final String DATASET_PATH = "api/learningOrchestra/v1/dataset";
+    public static final String DATATYPE_PATH = "api/learningOrchestra/v1/transform/datatype";
+    public static final String PROJECTION_PATH = "api/learningOrchestra/v1/transform/projection";
+    public static final String SEARCH_METADATA = "?query={}&limit=1&skip=0";
+    public static final String SEARCH_CONTENT = "?query={}&limit=20&skip=0";
+
+    private static final String UPLOAD = "upload/";
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes (\\d+)-(\\d+)/(\\d+)");
+
+    private static final List<String> GENERATED_FIELDS = Arrays.asList("id", "name", "age", "fare", "survived");
+
+    private final SimulatorOptions options;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ConcurrentMap<String, SimulatedDataset> datasets = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final ConcurrentMap<String, ByteArrayOutputStream> uploads = new ConcurrentHashMap<>();
+
+    public LearningOrchestraSimulator() throws IOException {
+        this(new SimulatorOptions());
+    }
+
+    public LearningOrchestraSimulator(SimulatorOptions options) throws IOException {
+        this.options = options;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.executor = Executors.newFixedThreadPool(options.getThreads(),
+                ClientExecutors.daemonThreads("learning-orchestra-simulator"));
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+    }
+
+    /**
+     * @return a client configuration pointing every microservice at this simulator. The first poll happens
+     * immediately, the polling delay never exceeds a tenth of the job delay and the projection operations the
+     * simulator understands are enabled.
+     */
+    public ClientConfig config() {
+        Properties properties = new Properties();
+        properties.setProperty(ClientConfig.ADDRESS, "http://127.0.0.1:" + getPort() + "/");
+        properties.setProperty("microservice_dataset", DATASET_PATH + "/");
+        properties.setProperty("microservice_transform_datatype", DATATYPE_PATH);
+        properties.setProperty("microservice_transform_projection", PROJECTION_PATH);
+        properties.setProperty(ClientConfig.WAIT_TIME, String.valueOf(Math.max(1, options.getJobDelay() / 10)));
+        properties.setProperty(ClientConfig.SEARCH_METADATA, SEARCH_METADATA);
+        properties.setProperty(ClientConfig.SEARCH_CONTENT, SEARCH_CONTENT);
+        properties.setProperty("poll_initial_delay", "0");
+        properties.setProperty(ClientConfig.PROJECTION_OPERATIONS, "true");
+        return ClientConfig.fromProperties(properties);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public SimulatorOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * @summary Adds a finished dataset with the generated rows, as if it had been inserted earlier.
+     */
+    public void addDataset(String datasetName) {
+        datasets.put(datasetName, generated(datasetName, "https://example.com/" + datasetName + ".csv",
+                options.getRowsPerDataset(), System.nanoTime()));
+    }
+
+    /**
+     * @summary Adds a finished dataset with the given rows. The fields are taken from the first row.
+     */
+    public void addDataset(String datasetName, List<JsonObject> rows) {
+        datasets.put(datasetName, stored(datasetName, "https://example.com/" + datasetName + ".csv", rows,
+                System.nanoTime()));
+    }
+
+    /**
+     * @return the number of bytes received by uploads not finished yet
+     */
+    public long getPendingUploadBytes() {
+        long bytes = 0;
+        for (ByteArrayOutputStream upload : uploads.values()) {
+            synchronized (upload) {
+                bytes += upload.size();
+            }
+        }
+        return bytes;
+    }
+
+    public boolean containsDataset(String datasetName) {
+        return datasets.containsKey(datasetName);
+    }
+
+    public int getDatasetCount() {
+        return datasets.size();
+    }
+
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    public long getInjectedErrorCount() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try {
+            simulateLatency();
+            if (options.getErrorRate() > 0 && ThreadLocalRandom.current().nextDouble() < options.getErrorRate()) {
+                injectedErrors.incrementAndGet();
+                respond(exchange, 503, "simulated failure");
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            if (path.startsWith("/" + DATASET_PATH))
+                route(exchange, "dataset", name(path, DATASET_PATH));
+            else if (path.startsWith("/" + DATATYPE_PATH))
+                route(exchange, "transform/datatype", name(path, DATATYPE_PATH));
+            else if (path.startsWith("/" + PROJECTION_PATH))
+                route(exchange, "transform/projection", name(path, PROJECTION_PATH));
+            else
+                respond(exchange, 404, "unknown route " + path);
+
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException exception) {
+            respond(exchange, 500, String.valueOf(exception));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, String microservice, String datasetName) throws IOException {
+        String method = exchange.getRequestMethod();
+        if ("dataset".equals(microservice) && datasetName.startsWith(UPLOAD)) {
+            upload(exchange, method, datasetName.substring(UPLOAD.length()));
+            return;
+        }
+        if ("GET".equals(method)) {
+            if (datasetName.isEmpty())
+                searchAll(exchange);
+            else
+                search(exchange, datasetName, query(exchange.getRequestURI().getRawQuery()));
+            return;
+        }
+        if ("DELETE".equals(method)) {
+            if (datasets.remove(datasetName) != null)
+                respond(exchange, 200, "deleted dataset");
+            else
+                respond(exchange, 404, "dataset not found");
+            return;
+        }
+
+        JsonObject request;
+        try (InputStreamReader reader = new InputStreamReader(requestBody(exchange), StandardCharsets.UTF_8)) {
+            request = new JsonParser().parse(reader).getAsJsonObject();
+        }
+        if (datasetName.isEmpty() && request.has("datasetName"))
+            datasetName = request.get("datasetName").getAsString();
+
+        long finishedAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getJobDelay());
+        switch (microservice + " " + method) {
+            case "dataset POST":
+                if (datasets.containsKey(datasetName)) {
+                    respond(exchange, 409, "duplicate file");
+                    return;
+                }
+                datasets.put(datasetName, generated(datasetName, string(request, "datasetURI"),
+                        options.getRowsPerDataset(), finishedAt));
+                respondPending(exchange, 201, microservice, datasetName);
+                break;
+
+            case "dataset PUT":
+                datasets.put(datasetName, generated(datasetName, string(request, "datasetURI"),
+                        options.getRowsPerDataset(), finishedAt));
+                respondPending(exchange, 200, microservice, datasetName);
+                break;
+
+            case "transform/datatype PATCH":
+                SimulatedDataset typed = datasets.get(datasetName);
+                if (typed == null) {
+                    respond(exchange, 404, "dataset not found");
+                    return;
+                }
+                Map<String, String> types = new LinkedHashMap<>();
+                for (JsonElement type : request.getAsJsonArray("types")) {
+                    JsonObject entry = type.getAsJsonObject();
+                    types.put(entry.get("key").getAsString(), entry.get("value").getAsString());
+                }
+                datasets.put(datasetName, typed.retype(types, finishedAt));
+                respondPending(exchange, 200, microservice, datasetName);
+                break;
+
+            case "transform/projection POST":
+            case "transform/projection PATCH":
+                if (request.has("operation")) {
+                    transform(exchange, method, datasetName, request, finishedAt);
+                    return;
+                }
+                SimulatedDataset source = datasets.get(string(request, "datasetOldName"));
+                if (source == null) {
+                    respond(exchange, 404, "dataset not found");
+                    return;
+                }
+                if ("POST".equals(method) && datasets.containsKey(datasetName)) {
+                    respond(exchange, 409, "duplicate file");
+                    return;
+                }
+                List<String> names = new ArrayList<>();
+                for (JsonElement name : request.getAsJsonArray("names"))
+                    names.add(name.getAsString());
+                datasets.put(datasetName, source.project(datasetName, names, now(), finishedAt));
+                respondPending(exchange, "POST".equals(method) ? 201 : 200, microservice, datasetName);
+                break;
+
+            default:
+                respond(exchange, 405, method + " is not supported by " + microservice);
+        }
+    }
+
+    /**
+     * @summary Runs a projection operation other than the attribute removal. A POST creates the result as a new
+     * dataset, named after the source and the operation unless it is a join, a PATCH replaces the source.
+     */
+    private void transform(HttpExchange exchange, String method, String datasetName, JsonObject request,
+                           long finishedAt) throws IOException {
+        String operation = string(request, "operation");
+        boolean join = "join".equals(operation);
+        boolean newDataset = "POST".equals(method);
+
+        List<SimulatedDataset> sources = new ArrayList<>();
+        if (join) {
+            for (JsonElement name : request.getAsJsonArray("datasetNames"))
+                sources.add(datasets.get(name.getAsString()));
+        } else {
+            sources.add(datasets.get(datasetName));
+        }
+        if (sources.isEmpty() || sources.contains(null)) {
+            respond(exchange, 404, "dataset not found");
+            return;
+        }
+
+        String resultName = join || !newDataset ? datasetName : datasetName + "_" + operation;
+        if (newDataset && datasets.containsKey(resultName)) {
+            respond(exchange, 409, "duplicate file");
+            return;
+        }
+
+        SimulatedDataset source = sources.get(0);
+        SimulatedDataset result;
+        switch (operation) {
+            case "reduce":
+                int reduction = request.get("sizeReduction").getAsInt();
+                result = source.resize(resultName, source.getRowCount() * Math.max(0, 100 - reduction) / 100,
+                        now(), finishedAt);
+                break;
+            case "enlarge":
+                int enlargement = request.get("sizeEnlarge").getAsInt();
+                result = source.resize(resultName, source.getRowCount() * (100 + enlargement) / 100, now(),
+                        finishedAt);
+                break;
+            case "insertAttribute":
+                result = source.mapValues(resultName, string(request, "attribute"),
+                        string(request, "existingAttribute"), strings(request, "values"), false, now(), finishedAt);
+                break;
+            case "updateValues":
+                result = source.mapValues(resultName, string(request, "attribute"), string(request, "attribute"),
+                        strings(request, "values"), true, now(), finishedAt);
+                break;
+            case "join":
+                result = SimulatedDataset.join(resultName, sources, strings(request, "attributesAssociations"),
+                        now(), finishedAt);
+                if (request.has("removeExistingDatasets") && request.get("removeExistingDatasets").getAsBoolean()) {
+                    for (SimulatedDataset joined : sources)
+                        datasets.remove(joined.getDatasetName());
+                }
+                break;
+            default:
+                respond(exchange, 400, "unknown operation " + operation);
+                return;
+        }
+
+        datasets.put(resultName, result);
+        respondPending(exchange, newDataset ? 201 : 200, "transform/projection", resultName);
+    }
+
+    /**
+     * @summary Receives a dataset file in parts. A GET answers the bytes received, a PUT appends the part given by
+     * its Content-Range when it starts there, and the dataset is inserted from the file once the last byte arrived.
+     */
+    private void upload(HttpExchange exchange, String method, String datasetName) throws IOException {
+        if ("GET".equals(method)) {
+            ByteArrayOutputStream upload = uploads.get(datasetName);
+            respond(exchange, 200, String.valueOf(upload == null ? 0 : size(upload)));
+            return;
+        }
+        if (!"PUT".equals(method)) {
+            respond(exchange, 405, method + " is not supported by uploads");
+            return;
+        }
+
+        String contentRange = exchange.getRequestHeaders().getFirst("Content-Range");
+        Matcher range = CONTENT_RANGE.matcher(contentRange == null ? "" : contentRange);
+        if (!range.matches()) {
+            respond(exchange, 400, "invalid Content-Range " + contentRange);
+            return;
+        }
+        long first = Long.parseLong(range.group(1));
+        long last = Long.parseLong(range.group(2));
+        long total = Long.parseLong(range.group(3));
+        if (first == 0 && datasets.containsKey(datasetName)) {
+            respond(exchange, 409, "duplicate file");
+            return;
+        }
+
+        ByteArrayOutputStream upload = uploads.computeIfAbsent(datasetName, name -> new ByteArrayOutputStream());
+        byte[] file;
+        synchronized (upload) {
+            if (first != upload.size()) {
+                respond(exchange, 409, String.valueOf(upload.size()));
+                return;
+            }
+
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            try (InputStream body = requestBody(exchange)) {
+                while ((read = body.read(buffer)) != -1)
+                    upload.write(buffer, 0, read);
+            } catch (IOException exception) {
+                // a part cut by the network is dropped whole, the client sends it again
+                truncate(upload, first);
+                throw exception;
+            }
+            if (upload.size() != last + 1) {
+                long received = upload.size() - first;
+                truncate(upload, first);
+                respond(exchange, 400, "the part has " + received + " bytes instead of " + (last - first + 1));
+                return;
+            }
+            if (upload.size() < total) {
+                respond(exchange, 200, String.valueOf(upload.size()));
+                return;
+            }
+            file = upload.toByteArray();
+            uploads.remove(datasetName);
+        }
+
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        List<JsonObject> rows = contentType != null && contentType.contains("ndjson") ? jsonLines(file) : csv(file);
+        long finishedAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getJobDelay());
+        datasets.put(datasetName, stored(datasetName, "upload", rows, finishedAt));
+        respondPending(exchange, 201, "dataset", datasetName);
+    }
+
+    private static int size(ByteArrayOutputStream upload) {
+        synchronized (upload) {
+            return upload.size();
+        }
+    }
+
+    private static void truncate(ByteArrayOutputStream upload, long size) {
+        byte[] kept = Arrays.copyOf(upload.toByteArray(), (int) size);
+        upload.reset();
+        upload.write(kept, 0, kept.length);
+    }
+
+    private static List<JsonObject> jsonLines(byte[] file) {
+        List<JsonObject> rows = new ArrayList<>();
+        JsonParser parser = new JsonParser();
+        for (String line : new String(file, StandardCharsets.UTF_8).split("\\r?\\n")) {
+            if (!line.trim().isEmpty())
+                rows.add(parser.parse(line).getAsJsonObject());
+        }
+        return rows;
+    }
+
+    /**
+     * @return the records of a CSV file with a header line, quoted values may hold separators and line breaks
+     */
+    private static List<JsonObject> csv(byte[] file) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> record = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        String text = new String(file, StandardCharsets.UTF_8);
+        boolean quoted = false;
+
+        for (int index = 0; index < text.length(); index++) {
+            char character = text.charAt(index);
+            if (quoted) {
+                if (character != '"') {
+                    value.append(character);
+                } else if (index + 1 < text.length() && text.charAt(index + 1) == '"') {
+                    value.append('"');
+                    index++;
+                } else {
+                    quoted = false;
+                }
+            } else if (character == '"') {
+                quoted = true;
+            } else if (character == ',') {
+                record.add(value.toString());
+                value.setLength(0);
+            } else if (character == '\n') {
+                record.add(value.toString());
+                value.setLength(0);
+                records.add(record);
+                record = new ArrayList<>();
+            } else if (character != '\r') {
+                value.append(character);
+            }
+        }
+        if (value.length() > 0 || !record.isEmpty()) {
+            record.add(value.toString());
+            records.add(record);
+        }
+
+        List<JsonObject> rows = new ArrayList<>();
+        if (records.isEmpty()) return rows;
+        List<String> header = records.get(0);
+        for (List<String> values : records.subList(1, records.size())) {
+            JsonObject row = new JsonObject();
+            for (int field = 0; field < header.size(); field++)
+                row.addProperty(header.get(field), field < values.size() ? values.get(field) : "");
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static Map<String, String> strings(JsonObject request, String name) {
+        Map<String, String> strings = new HashMap<>();
+        JsonElement object = request.get(name);
+        if (object == null || !object.isJsonObject()) return strings;
+        for (Map.Entry<String, JsonElement> entry : object.getAsJsonObject().entrySet())
+            strings.put(entry.getKey(), entry.getValue().getAsString());
+        return strings;
+    }
+
+    private void searchAll(HttpExchange exchange) throws IOException {
+        List<SimulatedDataset> snapshot = new ArrayList<>(datasets.values());
+        Codec codec = codec(exchange);
+        try (ResultWriter writer = codec.openResults(openBody(exchange, codec))) {
+            for (SimulatedDataset dataset : snapshot)
+                writer.write(dataset.metadata());
+        }
+    }
+
+    private void search(HttpExchange exchange, String datasetName, Map<String, String> query) throws IOException {
+        SimulatedDataset dataset = datasets.get(datasetName);
+        if (dataset == null) {
+            respond(exchange, 404, "dataset not found");
+            return;
+        }
+        long skip = Long.parseLong(query.getOrDefault("skip", "0"));
+        long limit = Long.parseLong(query.getOrDefault("limit", "20"));
+        long end = Math.min(skip + limit, dataset.getRowCount() + 1L);
+
+        // pages are streamed with chunked encoding, like large responses of the real server
+        Codec codec = codec(exchange);
+        try (ResultWriter writer = codec.openResults(openBody(exchange, codec))) {
+            for (long id = skip; id < end; id++)
+                writer.write(dataset.document((int) id));
+        }
+    }
+
+    /**
+     * @return CBOR when the simulator answers with it and the request accepts it, JSON otherwise
+     */
+    private Codec codec(HttpExchange exchange) {
+        String accept = exchange.getRequestHeaders().getFirst("Accept");
+        boolean cbor = options.isCbor() && accept != null && accept.contains(CborCodec.MEDIA_TYPE);
+        return cbor ? Codecs.CBOR : Codecs.JSON;
+    }
+
+    /**
+     * @return the body of a 200 response streamed with chunked encoding, compressed with gzip when the simulator
+     * compresses and the request accepts it, and throttled to the bandwidth of the simulator
+     */
+    private OutputStream openBody(HttpExchange exchange, Codec codec) throws IOException {
+        String acceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        boolean gzip = options.isCompression() && acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        exchange.getResponseHeaders().set("Content-Type", codec.getMediaType());
+        if (gzip) exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        exchange.sendResponseHeaders(200, 0);
+
+        OutputStream body = exchange.getResponseBody();
+        if (options.getBandwidth() > 0)
+            body = new ThrottledOutputStream(body, options.getBandwidth());
+        return gzip ? new GZIPOutputStream(body, 16 * 1024) : body;
+    }
+
+    private static InputStream requestBody(HttpExchange exchange) throws IOException {
+        String contentEncoding = exchange.getRequestHeaders().getFirst("Content-Encoding");
+        if (contentEncoding != null && contentEncoding.contains("gzip"))
+            return new GZIPInputStream(exchange.getRequestBody());
+        return exchange.getRequestBody();
+    }
+
+    private void simulateLatency() throws InterruptedException {
+        long delay = options.getLatency();
+        if (options.getJitter() > 0)
+            delay += ThreadLocalRandom.current().nextLong(-options.getJitter(), options.getJitter() + 1);
+        if (delay > 0)
+            Thread.sleep(delay);
+    }
+
+    private static SimulatedDataset generated(String datasetName, String url, int rowCount, long finishedAt) {
+        return new SimulatedDataset(datasetName, GENERATED_FIELDS, rowCount, LearningOrchestraSimulator::row,
+                "dataset/csv", url, now(), finishedAt);
+    }
+
+    /**
+     * @summary Builds a dataset over the given rows. The fields are taken from the first row.
+     */
+    private static SimulatedDataset stored(String datasetName, String url, List<JsonObject> rows, long finishedAt) {
+        List<String> fields = new ArrayList<>();
+        if (!rows.isEmpty()) {
+            for (Map.Entry<String, JsonElement> field : rows.get(0).entrySet())
+                fields.add(field.getKey());
+        }
+
+        List<JsonObject> copy = new ArrayList<>(rows);
+        IntFunction<JsonObject> source = id -> {
+            // rows are handed out as copies because transformations modify them
+            JsonObject row = new JsonObject();
+            for (Map.Entry<String, JsonElement> field : copy.get(id - 1).entrySet())
+                row.add(field.getKey(), field.getValue());
+            return row;
+        };
+        return new SimulatedDataset(datasetName, fields, copy.size(), source, "dataset/csv", url, now(), finishedAt);
+    }
+
+    private static JsonObject row(int id) {
+        JsonObject row = new JsonObject();
+        row.addProperty("id", String.valueOf(id));
+        row.addProperty("name", "passenger " + id);
+        row.addProperty("age", String.valueOf(18 + id % 60));
+        row.addProperty("fare", String.valueOf((id % 500) / 4.0));
+        row.addProperty("survived", id % 3 == 0 ? "1" : "0");
+        return row;
+    }
+
+    private static String name(String path, String microservicePath) {
+        String name = path.substring(microservicePath.length() + 1);
+        return name.startsWith("/") ? name.substring(1) : name;
+    }
+
+    private static String string(JsonObject request, String name) {
+        JsonElement value = request.get(name);
+        return value == null || value.isJsonNull() ? null : value.getAsString();
+    }
+
+    private static String now() {
+        return OffsetDateTime.now().withNano(0).toString();
+    }
+
+    private static Map<String, String> query(String rawQuery) throws IOException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) return query;
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0)
+                query.put(parameter.substring(0, equals),
+                        URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+        }
+        return query;
+    }
+
+    private void respondPending(HttpExchange exchange, int status, String microservice, String datasetName)
+            throws IOException {
+        respond(exchange, status, "/api/learningOrchestra/v1/" + microservice + "/" + datasetName + SEARCH_CONTENT);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String result) throws IOException {
+        JsonObject body = new JsonObject();
+        body.add("result", new JsonPrimitive(result));
+        byte[] bytes = JsonSerialization.toBytes(body);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(bytes);
+        }
+    }
+
+    /**
+     * @summary Sends the bytes no faster than the bandwidth, sleeping whenever the stream gets ahead of it.
+     */
+    private static class ThrottledOutputStream extends FilterOutputStream {
+
+        private static final int SLICE = 4 * 1024;
+
+        private final long bandwidth;
+        private final long start = System.nanoTime();
+        private long sent;
+
+        ThrottledOutputStream(OutputStream out, long bandwidth) {
+            super(out);
+            this.bandwidth = bandwidth;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[]{(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            while (length > 0) {
+                int slice = Math.min(length, SLICE);
+                out.write(buffer, offset, slice);
+                sent += slice;
+                offset += slice;
+                length -= slice;
+                pace();
+            }
+        }
+
+        private void pace() throws InterruptedIOException {
+            long ahead = sent * 1_000_000_000L / bandwidth - (System.nanoTime() - start);
+            if (ahead <= 0) return;
+            try {
+                TimeUnit.NANOSECONDS.sleep(ahead);
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while throttling a response");
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package benchmarks.simulator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class is a dataset kept by the simulator. Rows are produced on demand by a row function instead of
+ * being stored, this way a simulated dataset of millions of rows costs no memory. A transformation returns a new
+ * dataset that wraps the row function of the original one.
+ */
+class SimulatedDataset {
+
+    private final String datasetName;
+    private final List<String> fields;
+    private final int rowCount;
+    private final IntFunction<JsonObject> rows;
+    private final String type;
+    private final String url;
+    private final String timeCreated;
+    private final long finishedAt;
+
+    SimulatedDataset(String datasetName, List<String> fields, int rowCount, IntFunction<JsonObject> rows,
+                     String type, String url, String timeCreated, long finishedAt) {
+        this.datasetName = datasetName;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.rowCount = rowCount;
+        this.rows = rows;
+        this.type = type;
+        this.url = url;
+        this.timeCreated = timeCreated;
+        this.finishedAt = finishedAt;
+    }
+
+    String getDatasetName() {
+        return datasetName;
+    }
+
+    int getRowCount() {
+        return rowCount;
+    }
+
+    boolean isFinished() {
+        return System.nanoTime() - finishedAt >= 0;
+    }
+
+    /**
+     * @param id is the document id, 0 is the metadata document and the rows go from 1 to the row count
+     */
+    JsonObject document(int id) {
+        if (id == 0) return metadata();
+
+        JsonObject row = rows.apply(id);
+        JsonObject document = new JsonObject();
+        document.addProperty("_id", id);
+        for (Map.Entry<String, JsonElement> field : row.entrySet())
+            document.add(field.getKey(), field.getValue());
+        return document;
+    }
+
+    JsonObject metadata() {
+        JsonObject metadata = new JsonObject();
+        metadata.addProperty("_id", 0);
+        metadata.addProperty("datasetName", datasetName);
+        JsonArray fieldNames = new JsonArray();
+        for (String field : fields)
+            fieldNames.add(field);
+        metadata.add("fields", fieldNames);
+        metadata.addProperty("finished", Boolean.toString(isFinished()));
+        metadata.addProperty("timeCreated", timeCreated);
+        metadata.addProperty("type", type);
+        metadata.addProperty("url", url);
+        return metadata;
+    }
+
+    /**
+     * @summary Keeps only the given fields, the projection of Learning Orchestra.
+     */
+    SimulatedDataset project(String newName, Collection<String> keptFields, String newTimeCreated,
+                             long newFinishedAt) {
+        List<String> projectedFields = new ArrayList<>();
+        for (String field : fields) {
+            if (keptFields.contains(field))
+                projectedFields.add(field);
+        }
+
+        IntFunction<JsonObject> source = rows;
+        IntFunction<JsonObject> projected = id -> {
+            JsonObject row = source.apply(id);
+            JsonObject projection = new JsonObject();
+            for (String field : projectedFields)
+                projection.add(field, row.get(field));
+            return projection;
+        };
+        return new SimulatedDataset(newName, projectedFields, rowCount, projected, "transform/projection",
+                url, newTimeCreated, newFinishedAt);
+    }
+
+    /**
+     * @summary Changes the number of rows, the rows of a larger dataset repeat the original ones. This is the
+     * reduction and the enlargement of Learning Orchestra.
+     */
+    SimulatedDataset resize(String newName, int newRowCount, String newTimeCreated, long newFinishedAt) {
+        IntFunction<JsonObject> source = rows;
+        int sourceRowCount = rowCount;
+        IntFunction<JsonObject> resized = id -> source.apply((id - 1) % sourceRowCount + 1);
+        return new SimulatedDataset(newName, fields, sourceRowCount == 0 ? 0 : newRowCount, resized,
+                "transform/projection", url, newTimeCreated, newFinishedAt);
+    }
+
+    /**
+     * @param attribute         receives the mapped values, it is added to the fields when it is new
+     * @param existingAttribute provides the values to map
+     * @param keepUnmapped      keeps the values missing from the map, otherwise they become null
+     */
+    SimulatedDataset mapValues(String newName, String attribute, String existingAttribute,
+                               Map<String, String> values, boolean keepUnmapped, String newTimeCreated,
+                               long newFinishedAt) {
+        List<String> mappedFields = new ArrayList<>(fields);
+        if (!mappedFields.contains(attribute))
+            mappedFields.add(attribute);
+
+        IntFunction<JsonObject> source = rows;
+        IntFunction<JsonObject> mapped = id -> {
+            JsonObject row = source.apply(id);
+            JsonElement value = row.get(existingAttribute);
+            String key = value == null || value.isJsonNull() ? null : value.getAsString();
+            if (key != null && values.containsKey(key))
+                row.addProperty(attribute, values.get(key));
+            else
+                row.add(attribute, keepUnmapped && value != null ? value : JsonNull.INSTANCE);
+            return row;
+        };
+        return new SimulatedDataset(newName, mappedFields, rowCount, mapped, "transform/projection", url,
+                newTimeCreated, newFinishedAt);
+    }
+
+    /**
+     * @param associations maps a field of the first dataset to the field of the other datasets that fills it.
+     *                      Fields that are not in the map are read under the same name.
+     * @summary Appends the rows of the datasets, the fields are those of the first one.
+     */
+    static SimulatedDataset join(String newName, List<SimulatedDataset> datasets, Map<String, String> associations,
+                                 String newTimeCreated, long newFinishedAt) {
+        List<String> joinedFields = datasets.get(0).fields;
+        int[] offsets = new int[datasets.size() + 1];
+        for (int index = 0; index < datasets.size(); index++)
+            offsets[index + 1] = offsets[index] + datasets.get(index).rowCount;
+
+        IntFunction<JsonObject> joined = id -> {
+            int index = 0;
+            while (id > offsets[index + 1])
+                index++;
+            JsonObject row = datasets.get(index).rows.apply(id - offsets[index]);
+            if (index == 0) return row;
+
+            JsonObject associated = new JsonObject();
+            for (String field : joinedFields) {
+                JsonElement value = row.get(associations.getOrDefault(field, field));
+                associated.add(field, value != null ? value : JsonNull.INSTANCE);
+            }
+            return associated;
+        };
+        return new SimulatedDataset(newName, joinedFields, offsets[datasets.size()], joined, "transform/projection",
+                datasets.get(0).url, newTimeCreated, newFinishedAt);
+    }
+
+    /**
+     * @param types maps a field to number or string, the types accepted by the datatype microservice
+     */
+    SimulatedDataset retype(Map<String, String> types, long newFinishedAt) {
+        IntFunction<JsonObject> source = rows;
+        IntFunction<JsonObject> retyped = id -> {
+            JsonObject row = source.apply(id);
+            for (Map.Entry<String, String> fieldType : types.entrySet()) {
+                JsonElement value = row.get(fieldType.getKey());
+                if (value != null)
+                    row.add(fieldType.getKey(), convert(value, fieldType.getValue()));
+            }
+            return row;
+        };
+        return new SimulatedDataset(datasetName, fields, rowCount, retyped, type, url, timeCreated,
+                newFinishedAt);
+    }
+
+    private static JsonElement convert(JsonElement value, String type) {
+        if (!value.isJsonPrimitive()) return value;
+
+        if ("string".equals(type))
+            return new JsonPrimitive(value.getAsString());
+        if ("number".equals(type)) {
+            try {
+                return new JsonPrimitive(Double.parseDouble(value.getAsString()));
+            } catch (NumberFormatException exception) {
+                return JsonNull.INSTANCE;
+            }
+        }
+        return value;
+    }
+}
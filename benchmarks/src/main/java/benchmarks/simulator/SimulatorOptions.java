@@ -0,0 +1,162 @@
+package benchmarks.simulator;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class describes how the simulator behaves. It is immutable, every with method returns a modified
+ * copy, so the same options can be shared by several simulators.
+ */
+public final class SimulatorOptions {
+
+    public static final int DEFAULT_ROWS_PER_DATASET = 1000;
+    public static final int DEFAULT_THREADS = 64;
+
+    private final long jobDelay;
+    private final long latency;
+    private final long jitter;
+    private final double errorRate;
+    private final int rowsPerDataset;
+    private final int threads;
+    private final boolean compression;
+    private final long bandwidth;
+    private final boolean cbor;
+
+    public SimulatorOptions() {
+        this(0, 0, 0, 0, DEFAULT_ROWS_PER_DATASET, DEFAULT_THREADS, false, 0, false);
+    }
+
+    private SimulatorOptions(long jobDelay, long latency, long jitter, double errorRate, int rowsPerDataset,
+                             int threads, boolean compression, long bandwidth, boolean cbor) {
+        if (jobDelay < 0 || latency < 0 || jitter < 0)
+            throw new IllegalArgumentException("delays must not be negative");
+        if (errorRate < 0 || errorRate > 1)
+            throw new IllegalArgumentException("errorRate must be in [0, 1]");
+        if (rowsPerDataset < 0)
+            throw new IllegalArgumentException("rowsPerDataset must not be negative");
+        if (threads < 1)
+            throw new IllegalArgumentException("threads must be positive");
+        if (bandwidth < 0)
+            throw new IllegalArgumentException("bandwidth must not be negative");
+
+        this.jobDelay = jobDelay;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.errorRate = errorRate;
+        this.rowsPerDataset = rowsPerDataset;
+        this.threads = threads;
+        this.compression = compression;
+        this.bandwidth = bandwidth;
+        this.cbor = cbor;
+    }
+
+    /**
+     * @param jobDelay is the time in milliseconds an insertion, type change or projection stays unfinished
+     */
+    public SimulatorOptions withJobDelay(long jobDelay) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    /**
+     * @param latency is the time in milliseconds added to every response
+     * @param jitter  is the maximum random deviation in milliseconds, up or down, from the latency
+     */
+    public SimulatorOptions withLatency(long latency, long jitter) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    /**
+     * @param errorRate is the fraction of requests answered with 503 Service Unavailable
+     */
+    public SimulatorOptions withErrorRate(double errorRate) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    /**
+     * @param rowsPerDataset is the number of rows generated for each inserted dataset
+     */
+    public SimulatorOptions withRowsPerDataset(int rowsPerDataset) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    /**
+     * @param threads is the number of requests served at the same time
+     */
+    public SimulatorOptions withThreads(int threads) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    /**
+     * @param compression compresses the responses with gzip when the request accepts it, as a reverse proxy in
+     *                    front of Learning Orchestra would
+     */
+    public SimulatorOptions withCompression(boolean compression) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    /**
+     * @param bandwidth is the number of bytes per second a response body is sent at, 0 for no limit. Every response
+     *                  gets the whole bandwidth, as if each connection crossed its own slow link.
+     */
+    public SimulatorOptions withBandwidth(long bandwidth) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    /**
+     * @param cbor answers content searches with CBOR when the request accepts it, as a server supporting binary
+     *             responses would. Other responses stay JSON.
+     */
+    public SimulatorOptions withCbor(boolean cbor) {
+        return new SimulatorOptions(jobDelay, latency, jitter, errorRate, rowsPerDataset, threads, compression,
+                bandwidth, cbor);
+    }
+
+    public long getJobDelay() {
+        return jobDelay;
+    }
+
+    public long getLatency() {
+        return latency;
+    }
+
+    public long getJitter() {
+        return jitter;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public int getRowsPerDataset() {
+        return rowsPerDataset;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    public long getBandwidth() {
+        return bandwidth;
+    }
+
+    public boolean isCbor() {
+        return cbor;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SimulatorOptions[jobDelay=%d, latency=%d, jitter=%d, errorRate=%s, "
+                        + "rowsPerDataset=%d, threads=%d, compression=%s, bandwidth=%d, cbor=%s]", jobDelay, latency,
+                jitter, errorRate, rowsPerDataset, threads, compression, bandwidth, cbor);
+    }
+}
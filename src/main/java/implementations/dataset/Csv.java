@@ -0,0 +1,82 @@
+package implementations.dataset;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Helpers writing dataset rows as CSV (RFC 4180), the format Learning Orchestra inserts datasets from.
+ */
+final class Csv {
+
+    static final String ID = "_id";
+    static final String LINE_SEPARATOR = "\r\n";
+
+    private Csv() {
+    }
+
+    /**
+     * @return the fields of the rows in the order they first appear, without the document id
+     */
+    static List<String> fields(Iterable<JsonObject> rows) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (JsonObject row : rows) {
+            for (Map.Entry<String, JsonElement> field : row.entrySet()) {
+                if (!ID.equals(field.getKey()))
+                    fields.add(field.getKey());
+            }
+        }
+        return new ArrayList<>(fields);
+    }
+
+    /**
+     * @return the value of the field as written in a CSV cell, empty when it is missing or null
+     */
+    static String cell(JsonObject row, String field) {
+        JsonElement value = row.get(field);
+        if (value == null || value.isJsonNull()) return "";
+        return quote(value.isJsonPrimitive() ? value.getAsString() : value.toString());
+    }
+
+    static String quote(String value) {
+        boolean quoted = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        return quoted ? '"' + value.replace("\"", "\"\"") + '"' : value;
+    }
+
+    static void appendHeader(StringBuilder builder, List<String> fields) {
+        for (int index = 0; index < fields.size(); index++) {
+            if (index > 0) builder.append(',');
+            builder.append(quote(fields.get(index)));
+        }
+        builder.append(LINE_SEPARATOR);
+    }
+
+    static void appendRow(StringBuilder builder, JsonObject row, List<String> fields) {
+        for (int index = 0; index < fields.size(); index++) {
+            if (index > 0) builder.append(',');
+            builder.append(cell(row, fields.get(index)));
+        }
+        builder.append(LINE_SEPARATOR);
+    }
+
+    /**
+     * @return whether the row is the metadata document of the dataset, whose _id is 0
+     */
+    static boolean isMetadata(JsonObject row) {
+        JsonElement id = row.get(ID);
+        if (id == null || !id.isJsonPrimitive()) return false;
+        try {
+            return id.getAsDouble() == 0;
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+    }
+}
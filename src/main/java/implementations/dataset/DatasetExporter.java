@@ -0,0 +1,198 @@
+package implementations.dataset;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import com.google.gson.JsonObject;
+
+import implementations.util.ClientExecutors;
+import interfaces.dataset.DatasetInterface;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class exports the whole content of a dataset as JSON lines. The skip/limit range is split into
+ * chunks that are fetched concurrently, at most parallelism chunks at a time. A chunk is only requested after an
+ * earlier one was written, this way a slow output throttles the downloads and memory stays bounded by
+ * parallelism * chunkSize rows. In ordered mode the rows keep the dataset order, otherwise chunks are written as
+ * soon as they arrive.
+ */
+public class DatasetExporter {
+
+    private final DatasetInterface dataset;
+    private final int parallelism;
+    private final int chunkSize;
+    private final Executor executor;
+
+    public DatasetExporter(DatasetInterface dataset, int parallelism, int chunkSize) {
+        this(dataset, parallelism, chunkSize, ClientExecutors.io());
+    }
+
+    public DatasetExporter(DatasetInterface dataset, int parallelism, int chunkSize, Executor executor) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive");
+
+        this.dataset = dataset;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+    }
+
+    public ExportStatistics export(String datasetName, Path file, boolean ordered) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            return export(datasetName, outputStream, ordered);
+        }
+    }
+
+    public ExportStatistics export(String datasetName, OutputStream outputStream, boolean ordered)
+            throws IOException {
+        long start = System.nanoTime();
+        CountingOutputStream counter = new CountingOutputStream(new BufferedOutputStream(outputStream, 64 * 1024));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(counter, StandardCharsets.UTF_8), 64 * 1024);
+
+        Progress progress = ordered
+                ? exportOrdered(datasetName, writer)
+                : exportUnordered(datasetName, writer);
+
+        writer.flush();
+        return new ExportStatistics(datasetName, parallelism, chunkSize,
+                progress.rows, counter.count, progress.chunks, System.nanoTime() - start);
+    }
+
+    private Progress exportOrdered(String datasetName, Writer writer) throws IOException {
+        Progress progress = new Progress();
+        Deque<CompletableFuture<List<JsonObject>>> window = new ArrayDeque<>(parallelism);
+        int nextChunk = 0;
+
+        try {
+            while (window.size() < parallelism)
+                window.addLast(fetch(datasetName, nextChunk++));
+
+            while (!window.isEmpty()) {
+                List<JsonObject> rows = join(window.pollFirst());
+                write(rows, writer, progress);
+
+                if (rows.size() < chunkSize) break;
+                window.addLast(fetch(datasetName, nextChunk++));
+            }
+            return progress;
+
+        } finally {
+            for (CompletableFuture<List<JsonObject>> pending : window)
+                pending.cancel(false);
+        }
+    }
+
+    private Progress exportUnordered(String datasetName, Writer writer) throws IOException {
+        Progress progress = new Progress();
+        BlockingQueue<CompletableFuture<List<JsonObject>>> completed = new LinkedBlockingQueue<>();
+        Set<CompletableFuture<List<JsonObject>>> inFlight = new HashSet<>(parallelism * 2);
+        int nextChunk = 0;
+        boolean endReached = false;
+
+        try {
+            while (inFlight.size() < parallelism)
+                inFlight.add(submit(datasetName, nextChunk++, completed));
+
+            while (!inFlight.isEmpty()) {
+                CompletableFuture<List<JsonObject>> chunk;
+                try {
+                    chunk = completed.take();
+                } catch (InterruptedException exception) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while exporting " + datasetName);
+                }
+                inFlight.remove(chunk);
+
+                List<JsonObject> rows = join(chunk);
+                write(rows, writer, progress);
+
+                // chunks after a short one are empty, so only the ones already in flight are awaited
+                if (rows.size() < chunkSize) {
+                    endReached = true;
+                } else if (!endReached) {
+                    inFlight.add(submit(datasetName, nextChunk++, completed));
+                }
+            }
+            return progress;
+
+        } finally {
+            for (CompletableFuture<List<JsonObject>> pending : inFlight)
+                pending.cancel(false);
+        }
+    }
+
+    private CompletableFuture<List<JsonObject>> submit(String datasetName, int chunk,
+                                                        BlockingQueue<CompletableFuture<List<JsonObject>>> completed) {
+        CompletableFuture<List<JsonObject>> future = fetch(datasetName, chunk);
+        future.whenComplete((rows, error) -> completed.add(future));
+        return future;
+    }
+
+    private CompletableFuture<List<JsonObject>> fetch(String datasetName, int chunk) {
+        return CompletableFuture.supplyAsync(
+                () -> DatasetRowIterator.readPage(dataset, datasetName, chunkSize, chunk), executor);
+    }
+
+    private void write(List<JsonObject> rows, Writer writer, Progress progress) throws IOException {
+        for (JsonObject row : rows) {
+            writer.write(row.toString());
+            writer.write('\n');
+        }
+        progress.rows += rows.size();
+        if (!rows.isEmpty()) progress.chunks++;
+    }
+
+    private static List<JsonObject> join(CompletableFuture<List<JsonObject>> chunk) throws IOException {
+        try {
+            return chunk.join();
+        } catch (CompletionException exception) {
+            throw new IOException(exception.getCause().getMessage(), exception.getCause());
+        }
+    }
+
+    private static class Progress {
+        private long rows;
+        private int chunks;
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            out.write(value);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+    }
+}
@@ -1,39 +1,61 @@
 package implementations.dataset;
 
-import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.Map;
-import java.util.Properties;
-import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import implementations.dataset.columns.ColumnStore;
+import implementations.dataset.columns.ColumnStoreWriter;
+import implementations.dataset.columns.ColumnarPage;
+import implementations.dataset.columns.ColumnarPageDecoder;
+import implementations.dataset.columns.DatasetSchema;
+import implementations.util.BatchAwaiter;
+import implementations.util.ClientConfig;
+import implementations.util.ClientExecutors;
+import implementations.util.JobPoller;
+import implementations.util.JsonSerialization;
+import implementations.util.MetadataCache;
 import implementations.util.NetworkCommunication;
+import implementations.util.ReloadableClientConfig;
 import interfaces.dataset.DatasetInterface;
 
 public class DatasetImplementation implements DatasetInterface {
 
+    private final Supplier<ClientConfig> config;
+
+    public DatasetImplementation() {
+        this(ReloadableClientConfig.shared());
+    }
+
+    public DatasetImplementation(Supplier<ClientConfig> config) {
+        this.config = config;
+    }
+
     @Override
     public JsonObject insertDatasetSync(String datasetURI, String datasetName) {
         try {
-            Properties propertiess = new Properties();
-            propertiess.load(new FileInputStream("config.properties"));
-
-            Map<String, String> args = new TreeMap<>();
-            args.put("datasetURI", datasetURI);
-            args.put("datasetName", datasetName);
+            ClientConfig clientConfig = config.get();
 
-            JsonObject request = new JsonObject();
-            for (String key : args.keySet()) {
-                request.addProperty(key, args.get(key));
-            }
+            DatasetRequest request = new DatasetRequest(datasetName, datasetURI);
 
             JsonObject jsonObj = NetworkCommunication.jsonRequest(
-                    "POST", "microservice_dataset", false, request);
+                    clientConfig, "POST", "microservice_dataset", false, request);
+            // dropped once the server answered, a lookup made meanwhile may have cached the old metadata
+            MetadataCache.shared().invalidate(datasetName);
 
             if (jsonObj == null) throw new AssertionError();
             String result = jsonObj.get("result").getAsString();
 
-            String search = propertiess.getProperty("search_content");
+            String search = clientConfig.getSearchContent();
 
             if (result.endsWith(search)) {
                 JsonObject jsonObjectAux = await(datasetName);
@@ -52,15 +74,11 @@ public class DatasetImplementation implements DatasetInterface {
     @Override
     public JsonObject insertDatasetAsync(String datasetURI, String datasetName) {
         try {
-            Map<String, String> args = new TreeMap<>();
-            args.put("datasetURI", datasetURI);
-            args.put("datasetName", datasetName);
-            JsonObject request = new JsonObject();
-            for (String key : args.keySet()) {
-                request.addProperty(key, args.get(key));
-            }
-            return NetworkCommunication.jsonRequest(
-                    "POST", "microservice_dataset", false, request);
+            DatasetRequest request = new DatasetRequest(datasetName, datasetURI);
+            JsonObject jsonObj = NetworkCommunication.jsonRequest(
+                    config.get(), "POST", "microservice_dataset", false, request);
+            MetadataCache.shared().invalidate(datasetName);
+            return jsonObj;
 
         } catch (Exception exception) {
             // TODO Auto-generated catch block
@@ -72,19 +90,18 @@ public class DatasetImplementation implements DatasetInterface {
     @Override
     public JsonObject updateDatasetSync(String datasetURI, String datasetName) {
         try {
-            JsonObject request = new JsonObject();
-            request.addProperty("datasetName", datasetName);
-            request.addProperty("datasetURI", datasetURI);
+            ClientConfig clientConfig = config.get();
+
+            DatasetRequest request = new DatasetRequest(datasetName, datasetURI);
 
             JsonObject jsonObj = NetworkCommunication.jsonRequest(
-                    "PUT", "microservice_dataset", true, request);
+                    clientConfig, "PUT", "microservice_dataset", true, request);
+            MetadataCache.shared().invalidate(datasetName);
 
             if (jsonObj == null) throw new AssertionError();
 
             String result = jsonObj.get("result").getAsString();
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
-            String search = properties.getProperty("search_content");
+            String search = clientConfig.getSearchContent();
 
             if (result.endsWith(search)) {
                 JsonObject jsonObjectAux = await(datasetName);
@@ -102,12 +119,12 @@ public class DatasetImplementation implements DatasetInterface {
     @Override
     public JsonObject updateDatasetAsync(String datasetURI, String datasetName) {
         try {
-            JsonObject request = new JsonObject();
-            request.addProperty("datasetName", datasetName);
-            request.addProperty("datasetURI", datasetURI);
+            DatasetRequest request = new DatasetRequest(datasetName, datasetURI);
 
-            return NetworkCommunication.jsonRequest(
-                    "PUT", "microservice_dataset", true, request);
+            JsonObject jsonObj = NetworkCommunication.jsonRequest(
+                    config.get(), "PUT", "microservice_dataset", true, request);
+            MetadataCache.shared().invalidate(datasetName);
+            return jsonObj;
 
         } catch (Exception exception) {
             // TODO Auto-generated catch block
@@ -117,19 +134,86 @@ public class DatasetImplementation implements DatasetInterface {
     }
 
     @Override
-    public JsonObject await(String datasetURL) {
+    public CompletableFuture<JsonObject> insertDatasetFuture(String datasetURI, String datasetName) {
+        ClientConfig clientConfig = config.get();
+
+        DatasetRequest request = new DatasetRequest(datasetName, datasetURI);
+
+        return NetworkCommunication.jsonRequestAsync(
+                clientConfig, "POST", "microservice_dataset", false, request)
+                .whenComplete((jsonObj, error) -> MetadataCache.shared().invalidate(datasetName))
+                .thenCompose(jsonObj -> NetworkCommunication.awaitIfPending(
+                        clientConfig, "microservice_dataset", datasetName, jsonObj));
+    }
+
+    @Override
+    public CompletableFuture<JsonObject> updateDatasetFuture(String datasetURI, String datasetName) {
+        ClientConfig clientConfig = config.get();
+
+        DatasetRequest request = new DatasetRequest(datasetName, datasetURI);
+
+        return NetworkCommunication.jsonRequestAsync(
+                clientConfig, "PUT", "microservice_dataset", true, request)
+                .whenComplete((jsonObj, error) -> MetadataCache.shared().invalidate(datasetName))
+                .thenCompose(jsonObj -> NetworkCommunication.awaitIfPending(
+                        clientConfig, "microservice_dataset", datasetName, jsonObj));
+    }
+
+    @Override
+    public JsonObject uploadDatasetSync(Path file, String datasetName) {
         try {
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
+            return uploadDatasetFuture(file, datasetName).join();
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public CompletableFuture<JsonObject> uploadDatasetFuture(Path file, String datasetName) {
+        ClientConfig clientConfig = config.get();
+        DatasetUploader uploader = new DatasetUploader(() -> clientConfig);
+
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return uploader.upload(file, datasetName, false, UploadListener.NONE);
+            } catch (IOException exception) {
+                throw new CompletionException(exception);
+            }
+        }, ClientExecutors.io())
+                .whenComplete((jsonObj, error) -> MetadataCache.shared().invalidate(datasetName))
+                .thenCompose(jsonObj -> NetworkCommunication.awaitIfPending(
+                        clientConfig, "microservice_dataset", datasetName, jsonObj));
+    }
+
+    @Override
+    public CompletableFuture<JsonObject> awaitFuture(String datasetName) {
+        return JobPoller.shared().awaitFinished(config.get(), "microservice_dataset", datasetName);
+    }
+
+    @Override
+    public Map<String, CompletableFuture<JsonObject>> awaitAll(Collection<String> datasetNames) {
+        return BatchAwaiter.shared().awaitAll(config.get(), "microservice_dataset", datasetNames);
+    }
 
-            String address = properties.getProperty("address");
-            String microService = properties.getProperty("microservice_dataset");
-            String searchMetadata = properties.getProperty("search_metadata");
-            int sleep = Integer.parseInt(properties.getProperty("wait_time"));
+    @Override
+    public CompletableFuture<JsonObject> deleteDatasetFuture(String datasetName) {
+        ClientConfig clientConfig = config.get();
+
+        return NetworkCommunication.confirmRequestAsync(
+                clientConfig, datasetName, "DELETE", "microservice_dataset")
+                .whenComplete((jsonObj, error) -> MetadataCache.shared().invalidate(datasetName))
+                .thenCompose(jsonObj -> NetworkCommunication.awaitIfPending(
+                        clientConfig, "microservice_dataset", datasetName, jsonObj));
+    }
 
+    @Override
+    public JsonObject await(String datasetURL) {
+        try {
             return NetworkCommunication.confirmAsync(
-                    address, microService, "microservice_dataset",
-                    datasetURL, searchMetadata, null, sleep);
+                    config.get(), "microservice_dataset", datasetURL);
 
         } catch (Exception exception) {
             // TODO Auto-generated catch block
@@ -141,14 +225,15 @@ public class DatasetImplementation implements DatasetInterface {
     @Override
     public JsonObject deleteDatasetSync(String datasetName) {
         try {
+            ClientConfig clientConfig = config.get();
+
             JsonObject jsonObj = NetworkCommunication.confirm(
-                    datasetName, "DELETE", "microservice_dataset");
+                    clientConfig, datasetName, "DELETE", "microservice_dataset");
+            MetadataCache.shared().invalidate(datasetName);
             if (jsonObj == null) throw new AssertionError();
 
             String result = jsonObj.get("result").getAsString();
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
-            String search = properties.getProperty("search_content");
+            String search = clientConfig.getSearchContent();
 
             if (result.endsWith(search)) {
                 JsonObject jsonObjectAux = await(datasetName);
@@ -168,8 +253,10 @@ public class DatasetImplementation implements DatasetInterface {
     @Override
     public JsonObject deleteDatasetAsync(String datasetName) {
         try {
-            return NetworkCommunication.confirm(
-                    datasetName, "DELETE", "microservice_dataset");
+            JsonObject jsonObj = NetworkCommunication.confirm(
+                    config.get(), datasetName, "DELETE", "microservice_dataset");
+            MetadataCache.shared().invalidate(datasetName);
+            return jsonObj;
         } catch (Exception exception) {
             // TODO Auto-generated catch block
             exception.printStackTrace();
@@ -180,8 +267,57 @@ public class DatasetImplementation implements DatasetInterface {
     @Override
     public JsonObject searchAllDatasets() {
         try {
-            return NetworkCommunication.confirm(
-                    "", "GET", "microservice_dataset");
+            JsonArray rows = new JsonArray();
+            long stamp = MetadataCache.shared().stamp();
+            JsonObject jsonObj = NetworkCommunication.confirm(
+                    config.get(), "", "GET", "microservice_dataset", row -> {
+                        rows.add(row);
+                        MetadataCache.shared().put("microservice_dataset", JsonSerialization.toResult(row), stamp);
+                    });
+            return NetworkCommunication.withRows(jsonObj, rows);
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param datasetName is the name of the dataset
+     * @return the dataset metadata or null if there is no such dataset. The metadata of finished datasets is
+     * served from the metadata cache.
+     */
+    public Result searchDatasetMetadata(String datasetName) {
+        try {
+            Result cached = MetadataCache.shared().get("microservice_dataset", datasetName);
+            if (cached != null) return cached;
+
+            return fetchDatasetMetadata(datasetName);
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @summary Requests the metadata without looking at the metadata cache, the answer still refreshes it.
+     */
+    Result fetchDatasetMetadata(String datasetName) {
+        try {
+            ClientConfig clientConfig = config.get();
+            Result[] metadata = new Result[1];
+            long stamp = MetadataCache.shared().stamp();
+            NetworkCommunication.confirm(clientConfig, datasetName + clientConfig.getSearchMetadata(),
+                    "GET", "microservice_dataset", row -> {
+                        if (metadata[0] == null) metadata[0] = JsonSerialization.toResult(row);
+                    });
+
+            MetadataCache.shared().put("microservice_dataset", metadata[0], stamp);
+            return metadata[0];
+
         } catch (Exception exception) {
             // TODO Auto-generated catch block
             exception.printStackTrace();
@@ -192,9 +328,8 @@ public class DatasetImplementation implements DatasetInterface {
     @Override
     public JsonObject searchDatasetContent(String datasetName, int pageSize, int currentPage) {
         try {
-            String searchContent = " ?query={}&limit=" + pageSize + "&skip=" + currentPage;
             return NetworkCommunication.confirm(
-                    datasetName + searchContent,
+                    config.get(), datasetName + contentQuery(pageSize, currentPage),
                     "GET", "microservice_dataset");
         } catch (Exception exception) {
             // TODO Auto-generated catch block
@@ -203,15 +338,131 @@ public class DatasetImplementation implements DatasetInterface {
         }
     }
 
+    @Override
+    public JsonObject searchDatasetContent(String datasetName, int pageSize, int currentPage,
+                                           Consumer<JsonObject> rowConsumer) {
+        try {
+            return NetworkCommunication.confirm(
+                    config.get(), datasetName + contentQuery(pageSize, currentPage),
+                    "GET", "microservice_dataset", rowConsumer);
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
     @Override
     public JsonObject searchDatasetContent(String datasetName) {
         try {
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
-            String searchContent = properties.getProperty("search_content");
+            ClientConfig clientConfig = config.get();
 
             return NetworkCommunication.confirm(
-                    datasetName + searchContent, "GET", "microservice_dataset");
+                    clientConfig, datasetName + clientConfig.getSearchContent(), "GET", "microservice_dataset");
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param datasetName is the name of the dataset
+     * @param types       maps a field to number or string, the types given to the datatype microservice. Fields
+     *                    that are not in the map are read as strings.
+     * @param pageSize    is the number of tuples or registers returned per page
+     * @param currentPage is the page to read
+     * @return the page decoded by column, or null if there is no such dataset
+     */
+    public ColumnarPage searchDatasetColumns(String datasetName, Map<String, String> types, int pageSize,
+                                             int currentPage) {
+        Result metadata = searchDatasetMetadata(datasetName);
+        if (metadata == null) return null;
+
+        return searchDatasetColumns(datasetName, new ColumnarPageDecoder(DatasetSchema.of(metadata, types)),
+                pageSize, currentPage);
+    }
+
+    /**
+     * @param decoder is reused across the pages of a dataset, this way string columns share one dictionary
+     * @return the page decoded by column, or null if the page cannot be read
+     */
+    public ColumnarPage searchDatasetColumns(String datasetName, ColumnarPageDecoder decoder, int pageSize,
+                                             int currentPage) {
+        try {
+            return NetworkCommunication.read(config.get(), datasetName + contentQuery(pageSize, currentPage),
+                    "microservice_dataset", decoder::decode);
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param datasetName is the name of the dataset
+     * @param types       maps a field to number or string, fields that are not in the map are read as strings
+     * @param directory   receives the column store, a store already there is replaced
+     * @param pageSize    is the number of tuples or registers requested per page
+     * @return the whole dataset content mapped from disk, or null if it cannot be pulled
+     */
+    public ColumnStore pullDataset(String datasetName, Map<String, String> types, Path directory, int pageSize) {
+        try {
+            Result metadata = searchDatasetMetadata(datasetName);
+            if (metadata == null || !writeDataset(metadata, datasetName, types, directory, pageSize)) return null;
+
+            return ColumnStore.open(directory);
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @param metadata gives the schema and the timeCreated written to the store
+     * @return whether the store was completely written, it is not opened
+     */
+    boolean writeDataset(Result metadata, String datasetName, Map<String, String> types, Path directory,
+                         int pageSize) {
+        try {
+            ColumnarPageDecoder decoder = new ColumnarPageDecoder(DatasetSchema.of(metadata, types));
+            try (ColumnStoreWriter writer = new ColumnStoreWriter(directory, decoder.getSchema())) {
+                writer.setProperty("datasetName", datasetName);
+                writer.setProperty("timeCreated", metadata.getTimeCreated());
+
+                // one page is on the heap at a time, the previous ones are already in the store files
+                for (int currentPage = 0; ; currentPage++) {
+                    ColumnarPage page = NetworkCommunication.read(config.get(),
+                            datasetName + contentQuery(pageSize, currentPage), "microservice_dataset",
+                            decoder::decode);
+                    writer.append(page);
+                    if (page.getDocumentCount() < pageSize) break;
+                }
+                writer.finish();
+            }
+            return true;
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * @param datasetName is the name of the dataset
+     * @param types       maps a field to number or string, fields that are not in the map are read as strings
+     * @param cache       keeps the snapshots, validated with one metadata request
+     * @return the content of the finished dataset mapped from the snapshot cache, pulled first on a miss, or null
+     * if the dataset does not exist, is not finished or cannot be pulled
+     */
+    public ColumnStore searchDatasetSnapshot(String datasetName, Map<String, String> types, SnapshotCache cache) {
+        try {
+            return cache.get(this, datasetName, types, config.get().getPageSize());
 
         } catch (Exception exception) {
             // TODO Auto-generated catch block
@@ -220,5 +471,17 @@ public class DatasetImplementation implements DatasetInterface {
         }
     }
 
+    @Override
+    public Stream<JsonObject> streamDatasetContent(String datasetName, int batchSize) {
+        return DatasetRowIterator.stream(this, datasetName, batchSize, ClientExecutors.io());
+    }
+
+    @Override
+    public Stream<JsonObject> streamDatasetContent(String datasetName) {
+        return streamDatasetContent(datasetName, config.get().getPageSize());
+    }
 
+    private static String contentQuery(int pageSize, int currentPage) {
+        return "?query={}&limit=" + pageSize + "&skip=" + (long) currentPage * pageSize;
+    }
 }
@@ -1,9 +1,20 @@
 package implementations.dataset;
 
+import java.util.function.Supplier;
+
 import com.google.gson.JsonObject;
 
+import implementations.util.ClientConfig;
+
 public class DatasetImplementationTypoCorrection extends DatasetImplementation {
 
+    public DatasetImplementationTypoCorrection() {
+        super();
+    }
+
+    public DatasetImplementationTypoCorrection(Supplier<ClientConfig> config) {
+        super(config);
+    }
 
     @Override
     public JsonObject searchDatasetContent(String datasetName, int pageSize, int pageStart) {
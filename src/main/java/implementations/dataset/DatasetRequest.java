@@ -0,0 +1,33 @@
+package implementations.dataset;
+
+import implementations.util.JsonRequest;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The body of a dataset insertion or update.
+ */
+public final class DatasetRequest implements JsonRequest {
+
+    private final String datasetName;
+    private final String datasetURI;
+
+    public DatasetRequest(String datasetName, String datasetURI) {
+        this.datasetName = datasetName;
+        this.datasetURI = datasetURI;
+    }
+
+    @Override
+    public String getDatasetName() {
+        return datasetName;
+    }
+
+    public String getDatasetURI() {
+        return datasetURI;
+    }
+
+    @Override
+    public int getValueCount() {
+        return 2;
+    }
+}
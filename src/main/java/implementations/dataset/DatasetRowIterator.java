@@ -0,0 +1,120 @@
+package implementations.dataset;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import implementations.util.ResponseParser;
+import interfaces.dataset.DatasetInterface;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This iterator walks the whole content of a dataset page by page. While the rows of a page are consumed,
+ * the next page is already being fetched, and only these two pages are kept in memory. The iteration stops after
+ * the first page with fewer rows than the batch size.
+ */
+public class DatasetRowIterator implements Iterator<JsonObject>, Closeable {
+
+    private final DatasetInterface dataset;
+    private final String datasetName;
+    private final int batchSize;
+    private final Executor executor;
+
+    private Iterator<JsonObject> current = Collections.emptyIterator();
+    private CompletableFuture<List<JsonObject>> prefetch;
+    private int nextPage;
+    private boolean lastPageFetched;
+    private boolean closed;
+
+    public DatasetRowIterator(DatasetInterface dataset, String datasetName, int batchSize, Executor executor) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+
+        this.dataset = dataset;
+        this.datasetName = datasetName;
+        this.batchSize = batchSize;
+        this.executor = executor;
+        this.prefetch = fetch(nextPage++);
+    }
+
+    public static Stream<JsonObject> stream(DatasetInterface dataset, String datasetName, int batchSize,
+                                            Executor executor) {
+        DatasetRowIterator iterator = new DatasetRowIterator(dataset, datasetName, batchSize, executor);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+                iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(iterator::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed || prefetch == null) return false;
+
+            List<JsonObject> page;
+            try {
+                page = prefetch.join();
+            } catch (CompletionException exception) {
+                close();
+                throw exception.getCause() instanceof RuntimeException
+                        ? (RuntimeException) exception.getCause() : exception;
+            }
+
+            lastPageFetched = page.size() < batchSize;
+            prefetch = lastPageFetched ? null : fetch(nextPage++);
+            current = page.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public JsonObject next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return current.next();
+    }
+
+    public boolean isLastPageFetched() {
+        return lastPageFetched;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        current = Collections.emptyIterator();
+        if (prefetch != null) {
+            prefetch.cancel(false);
+            prefetch = null;
+        }
+    }
+
+    private CompletableFuture<List<JsonObject>> fetch(int page) {
+        return CompletableFuture.supplyAsync(
+                () -> readPage(dataset, datasetName, batchSize, page), executor);
+    }
+
+    static List<JsonObject> readPage(DatasetInterface dataset, String datasetName, int pageSize, int page) {
+        List<JsonObject> rows = new ArrayList<>(pageSize);
+        JsonObject response = dataset.searchDatasetContent(datasetName, pageSize, page, rows::add);
+
+        if (response == null)
+            throw new IllegalStateException("cannot read page " + page + " of dataset " + datasetName);
+
+        JsonElement result = response.get(ResponseParser.RESULT);
+        if (result != null && !result.isJsonArray())
+            throw new IllegalStateException("cannot read page " + page + " of dataset " + datasetName
+                    + ": " + result);
+        return rows;
+    }
+}
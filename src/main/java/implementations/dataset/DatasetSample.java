@@ -0,0 +1,100 @@
+package implementations.dataset;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The rows drawn by a DatasetSampler, in the order they have in the dataset. The document ids of
+ * Learning Orchestra are kept in the rows and left out of the CSV, a dataset inserted from it gets new ids.
+ */
+public class DatasetSample {
+
+    private final String datasetName;
+    private final List<JsonObject> rows;
+    private final long rowsSeen;
+    private final Map<String, Long> strata;
+
+    public DatasetSample(String datasetName, List<JsonObject> rows, long rowsSeen, Map<String, Long> strata) {
+        this.datasetName = datasetName;
+        this.rows = Collections.unmodifiableList(rows);
+        this.rowsSeen = rowsSeen;
+        this.strata = Collections.unmodifiableMap(new LinkedHashMap<>(strata));
+    }
+
+    public String getDatasetName() {
+        return datasetName;
+    }
+
+    public List<JsonObject> getRows() {
+        return rows;
+    }
+
+    public int size() {
+        return rows.size();
+    }
+
+    /**
+     * @return the number of rows of the dataset, all of them were read once
+     */
+    public long getRowsSeen() {
+        return rowsSeen;
+    }
+
+    /**
+     * @return the number of dataset rows of each stratum, empty unless the sample is stratified
+     */
+    public Map<String, Long> getStrata() {
+        return strata;
+    }
+
+    /**
+     * @return the fields of the sampled rows in the order they first appear, without the document id
+     */
+    public List<String> getFields() {
+        return Csv.fields(rows);
+    }
+
+    public void writeCsv(Path file) throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            writeCsv(outputStream);
+        }
+    }
+
+    /**
+     * @summary Writes the sample as CSV with a header line, the format Learning Orchestra inserts datasets from.
+     * Missing and null values are empty.
+     */
+    public void writeCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 64 * 1024);
+        List<String> fields = getFields();
+        StringBuilder line = new StringBuilder();
+
+        Csv.appendHeader(line, fields);
+        writer.write(line.toString());
+        for (JsonObject row : rows) {
+            line.setLength(0);
+            Csv.appendRow(line, row, fields);
+            writer.write(line.toString());
+        }
+        writer.flush();
+    }
+
+    @Override
+    public String toString() {
+        return "DatasetSample[" + datasetName + ", " + rows.size() + " of " + rowsSeen + " rows]";
+    }
+}
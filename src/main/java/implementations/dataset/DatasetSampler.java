@@ -0,0 +1,214 @@
+package implementations.dataset;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import implementations.util.ClientExecutors;
+import interfaces.dataset.DatasetInterface;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class draws a uniform random sample of a dataset on the client, for previews that do not need a
+ * reduced dataset in Learning Orchestra. The content is read once, page by page, and only the sample is kept in
+ * memory, so the dataset size does not matter. It is a standalone sampler, not a fallback of reduceDataset: the
+ * projection methods never call it, and a sample only becomes a dataset through writeBack, once the caller
+ * publishes the CSV file where the cluster can download it.
+ */
+public class DatasetSampler {
+
+    private final DatasetInterface dataset;
+    private final int batchSize;
+
+    public DatasetSampler(DatasetInterface dataset, int batchSize) {
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive");
+
+        this.dataset = dataset;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @param sampleSize is the number of rows drawn, all rows are returned when the dataset is smaller
+     * @return every sample of sampleSize rows has the same probability
+     * @summary Reservoir sampling, the skip variant of Li's algorithm L: after the reservoir is full, the number
+     * of rows to pass over before the next replacement is drawn directly, so the random generator is called
+     * about sampleSize * log(rows / sampleSize) times instead of once per row.
+     */
+    public DatasetSample reservoir(String datasetName, int sampleSize, Random random) {
+        if (sampleSize < 1) throw new IllegalArgumentException("sampleSize must be positive");
+
+        Reservoir reservoir = new Reservoir(sampleSize, random);
+        long seen = 0;
+        try (DatasetRowIterator rows = new DatasetRowIterator(dataset, datasetName, batchSize, ClientExecutors.io())) {
+            while (rows.hasNext()) {
+                JsonObject row = rows.next();
+                if (Csv.isMetadata(row)) continue;
+                reservoir.offer(seen++, row);
+            }
+        }
+        return new DatasetSample(datasetName, reservoir.rows(), seen, Collections.<String, Long>emptyMap());
+    }
+
+    /**
+     * @param field      splits the rows into strata by its value, a missing value is a stratum of its own
+     * @param sampleSize is the number of rows drawn, split among the strata in proportion to their size
+     * @return a sample where every stratum has its share of rows, rounded by the largest remainder, and the rows
+     * of a stratum are a uniform sample of it
+     * @summary Every stratum keeps a reservoir of sampleSize rows while the content is read, because the sizes of
+     * the strata are only known at the end. The memory is bounded by sampleSize rows per distinct value of the
+     * field, so the field should be categorical.
+     */
+    public DatasetSample stratified(String datasetName, String field, int sampleSize, Random random) {
+        if (sampleSize < 1) throw new IllegalArgumentException("sampleSize must be positive");
+
+        Map<String, Reservoir> strata = new LinkedHashMap<>();
+        long seen = 0;
+        try (DatasetRowIterator rows = new DatasetRowIterator(dataset, datasetName, batchSize, ClientExecutors.io())) {
+            while (rows.hasNext()) {
+                JsonObject row = rows.next();
+                if (Csv.isMetadata(row)) continue;
+
+                JsonElement value = row.get(field);
+                String stratum = value == null || value.isJsonNull() ? null : value.getAsString();
+                strata.computeIfAbsent(stratum, ignored -> new Reservoir(sampleSize, random)).offer(seen++, row);
+            }
+        }
+
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Reservoir> stratum : strata.entrySet())
+            counts.put(stratum.getKey(), stratum.getValue().seen);
+
+        Map<String, Integer> shares = allocate(counts, seen, sampleSize);
+        List<Reservoir.Entry> sample = new ArrayList<>();
+        for (Map.Entry<String, Reservoir> stratum : strata.entrySet())
+            sample.addAll(stratum.getValue().subsample(shares.get(stratum.getKey()), random));
+        sample.sort(Comparator.comparingLong(entry -> entry.position));
+
+        List<JsonObject> rows = new ArrayList<>(sample.size());
+        for (Reservoir.Entry entry : sample)
+            rows.add(entry.row);
+        return new DatasetSample(datasetName, rows, seen, counts);
+    }
+
+    /**
+     * @param datasetURI is where Learning Orchestra downloads the CSV from, it must serve the file written here
+     * @summary Writes the sample as CSV and inserts it as a new dataset. Learning Orchestra only inserts datasets
+     * from URLs, so publishing the file is up to the caller, for instance through a shared volume or a web server
+     * serving the directory. Nothing is published by this method.
+     */
+    public DatasetSample writeBack(DatasetSample sample, Path csvFile, String datasetURI, String datasetName)
+            throws IOException {
+        sample.writeCsv(csvFile);
+        dataset.insertDatasetSync(datasetURI, datasetName);
+        return sample;
+    }
+
+    private static Map<String, Integer> allocate(Map<String, Long> counts, long total, int sampleSize) {
+        Map<String, Integer> shares = new HashMap<>();
+        if (total == 0) return shares;
+
+        long size = Math.min(sampleSize, total);
+        Map<String, Double> remainders = new HashMap<>();
+        long allocated = 0;
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            double exact = (double) size * count.getValue() / total;
+            int share = (int) Math.floor(exact);
+            shares.put(count.getKey(), share);
+            remainders.put(count.getKey(), exact - share);
+            allocated += share;
+        }
+
+        List<String> byRemainder = new ArrayList<>(counts.keySet());
+        byRemainder.sort((one, other) -> Double.compare(remainders.get(other), remainders.get(one)));
+        Iterator<String> next = byRemainder.iterator();
+        while (allocated < size && next.hasNext()) {
+            shares.merge(next.next(), 1, Integer::sum);
+            allocated++;
+        }
+        return shares;
+    }
+
+    private static class Reservoir {
+
+        private final int capacity;
+        private final Random random;
+        private final List<Entry> entries;
+        private long seen;
+        private long nextReplacement;
+        private double weight;
+
+        Reservoir(int capacity, Random random) {
+            this.capacity = capacity;
+            this.random = random;
+            this.entries = new ArrayList<>(Math.min(capacity, 1024));
+        }
+
+        void offer(long position, JsonObject row) {
+            seen++;
+            if (entries.size() < capacity) {
+                entries.add(new Entry(position, row));
+                if (entries.size() == capacity) {
+                    weight = Math.exp(Math.log(uniform()) / capacity);
+                    skip();
+                }
+                return;
+            }
+            if (seen < nextReplacement) return;
+
+            entries.set(random.nextInt(capacity), new Entry(position, row));
+            weight *= Math.exp(Math.log(uniform()) / capacity);
+            skip();
+        }
+
+        private void skip() {
+            nextReplacement = seen + (long) Math.floor(Math.log(uniform()) / Math.log(1 - weight)) + 1;
+        }
+
+        private double uniform() {
+            // log(0) is not defined, nextDouble returns 0 with a tiny probability
+            double value;
+            do {
+                value = random.nextDouble();
+            } while (value == 0);
+            return value;
+        }
+
+        List<Entry> subsample(int size, Random random) {
+            List<Entry> copy = new ArrayList<>(entries);
+            Collections.shuffle(copy, random);
+            return copy.subList(0, Math.min(size, copy.size()));
+        }
+
+        List<JsonObject> rows() {
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(Comparator.comparingLong(entry -> entry.position));
+            List<JsonObject> rows = new ArrayList<>(sorted.size());
+            for (Entry entry : sorted)
+                rows.add(entry.row);
+            return rows;
+        }
+
+        private static class Entry {
+
+            private final long position;
+            private final JsonObject row;
+
+            Entry(long position, JsonObject row) {
+                this.position = position;
+                this.row = row;
+            }
+        }
+    }
+}
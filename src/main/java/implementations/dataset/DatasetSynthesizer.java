@@ -0,0 +1,261 @@
+package implementations.dataset;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.google.gson.JsonObject;
+
+import implementations.util.ClientExecutors;
+import interfaces.dataset.DatasetInterface;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class enlarges a dataset on the client, for instance to build load test datasets, and writes the
+ * result as CSV to a file or to any stream, such as an upload. The source is read page by page, every page is
+ * turned into CSV with its synthetic rows on a pool of workers, and the chunks are written in page order. At most
+ * two pages per worker are in flight, so the memory does not depend on the size of the source nor of the result.
+ * With the same seed, the same source gives the same output whatever the number of workers.
+ */
+public class DatasetSynthesizer {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    // Knuth's Poisson sampler underflows for large means, they are split in parts of at most this size
+    private static final double POISSON_PART = 30;
+
+    /**
+     * @summary How the synthetic rows are drawn from a page of the source.
+     */
+    public enum Strategy {
+        /**
+         * Copies every source row a Poisson distributed number of times, the Poisson bootstrap. The synthetic rows
+         * are real rows, so the correlations between fields are kept.
+         */
+        BOOTSTRAP,
+        /**
+         * Draws every field of a synthetic row independently from the values of the page, so the rows follow the
+         * distribution of each column but are new combinations of values.
+         */
+        COLUMNS
+    }
+
+    private final DatasetInterface dataset;
+    private final int workers;
+    private final int pageSize;
+    private final Executor executor;
+
+    public DatasetSynthesizer(DatasetInterface dataset, int workers, int pageSize) {
+        this(dataset, workers, pageSize, ClientExecutors.io());
+    }
+
+    /**
+     * @param workers  is the number of threads synthesizing rows
+     * @param executor fetches the pages of the source
+     */
+    public DatasetSynthesizer(DatasetInterface dataset, int workers, int pageSize, Executor executor) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be positive");
+        if (pageSize < 1) throw new IllegalArgumentException("pageSize must be positive");
+
+        this.dataset = dataset;
+        this.workers = workers;
+        this.pageSize = pageSize;
+        this.executor = executor;
+    }
+
+    public ExportStatistics enlarge(String datasetName, int sizeEnlarge, Strategy strategy, long seed, Path file)
+            throws IOException {
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            return enlarge(datasetName, sizeEnlarge, strategy, seed, outputStream);
+        }
+    }
+
+    /**
+     * @param sizeEnlarge is the percentage of growth, as in ProjectionInterface. Example 10%, 20%, 110%, etc. The
+     *                    number of synthetic rows is random, its mean is the requested percentage of the source.
+     * @return the statistics of the CSV written, the rows count the source rows and the synthetic ones
+     * @summary Writes the source rows followed, page by page, by the synthetic rows. The header holds the fields
+     * of the first page, fields appearing later are left out. The stream is flushed but not closed.
+     */
+    public ExportStatistics enlarge(String datasetName, int sizeEnlarge, Strategy strategy, long seed,
+                                    OutputStream outputStream) throws IOException {
+        if (sizeEnlarge < 0) throw new IllegalArgumentException("sizeEnlarge must not be negative");
+
+        long start = System.nanoTime();
+        OutputStream output = new BufferedOutputStream(outputStream, BUFFER_SIZE);
+        double growth = sizeEnlarge / 100.0;
+        SplittableRandom random = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(workers,
+                ClientExecutors.daemonThreads("learning-orchestra-synthesis"));
+        Deque<CompletableFuture<Chunk>> window = new ArrayDeque<>(2 * workers);
+        long rows = 0;
+        long bytes = 0;
+        int chunks = 0;
+
+        try {
+            List<JsonObject> firstPage = join(fetch(datasetName, 0));
+            List<String> fields = Csv.fields(withoutMetadata(firstPage));
+            if (fields.isEmpty())
+                throw new IOException("the dataset " + datasetName + " does not exist or has no rows");
+            StringBuilder header = new StringBuilder();
+            Csv.appendHeader(header, fields);
+            byte[] headerBytes = header.toString().getBytes(StandardCharsets.UTF_8);
+            output.write(headerBytes);
+            bytes += headerBytes.length;
+
+            int nextPage = 1;
+            boolean endReached = firstPage.size() < pageSize;
+            window.addLast(synthesize(CompletableFuture.completedFuture(firstPage), fields, growth, strategy,
+                    random.split(), pool));
+            while (!endReached && window.size() < 2 * workers)
+                window.addLast(synthesize(fetch(datasetName, nextPage++), fields, growth, strategy,
+                        random.split(), pool));
+
+            while (!window.isEmpty()) {
+                Chunk chunk = join(window.pollFirst());
+                output.write(chunk.bytes);
+                rows += chunk.rows;
+                bytes += chunk.bytes.length;
+                if (chunk.rows > 0) chunks++;
+
+                // pages after a short one are empty, so only the ones already in flight are awaited
+                if (chunk.pageSize < pageSize)
+                    endReached = true;
+                else if (!endReached)
+                    window.addLast(synthesize(fetch(datasetName, nextPage++), fields, growth, strategy,
+                            random.split(), pool));
+            }
+            output.flush();
+            return new ExportStatistics(datasetName, workers, pageSize, rows, bytes, chunks,
+                    System.nanoTime() - start);
+
+        } finally {
+            for (CompletableFuture<Chunk> pending : window)
+                pending.cancel(false);
+            pool.shutdownNow();
+        }
+    }
+
+    private CompletableFuture<List<JsonObject>> fetch(String datasetName, int page) {
+        return CompletableFuture.supplyAsync(
+                () -> DatasetRowIterator.readPage(dataset, datasetName, pageSize, page), executor);
+    }
+
+    private static CompletableFuture<Chunk> synthesize(CompletableFuture<List<JsonObject>> page, List<String> fields,
+                                                       double growth, Strategy strategy, SplittableRandom random,
+                                                       Executor pool) {
+        return page.thenApplyAsync(rows -> {
+            List<JsonObject> source = withoutMetadata(rows);
+            StringBuilder builder = new StringBuilder();
+            long written = 0;
+
+            for (JsonObject row : source)
+                Csv.appendRow(builder, row, fields);
+            written += source.size();
+
+            if (strategy == Strategy.BOOTSTRAP)
+                written += bootstrap(builder, source, fields, growth, random);
+            else
+                written += columns(builder, source, fields, growth, random);
+
+            return new Chunk(builder.toString().getBytes(StandardCharsets.UTF_8), written, rows.size());
+        }, pool);
+    }
+
+    private static long bootstrap(StringBuilder builder, List<JsonObject> source, List<String> fields,
+                                  double growth, SplittableRandom random) {
+        long written = 0;
+        for (JsonObject row : source) {
+            int copies = poisson(growth, random);
+            if (copies == 0) continue;
+
+            int start = builder.length();
+            Csv.appendRow(builder, row, fields);
+            int end = builder.length();
+            for (int copy = 1; copy < copies; copy++)
+                builder.append(builder, start, end);
+            written += copies;
+        }
+        return written;
+    }
+
+    private static long columns(StringBuilder builder, List<JsonObject> source, List<String> fields,
+                                double growth, SplittableRandom random) {
+        if (source.isEmpty()) return 0;
+
+        String[][] cells = new String[fields.size()][source.size()];
+        for (int field = 0; field < fields.size(); field++) {
+            for (int row = 0; row < source.size(); row++)
+                cells[field][row] = Csv.cell(source.get(row), fields.get(field));
+        }
+
+        int count = poisson(growth * source.size(), random);
+        for (int row = 0; row < count; row++) {
+            for (int field = 0; field < fields.size(); field++) {
+                if (field > 0) builder.append(',');
+                builder.append(cells[field][random.nextInt(source.size())]);
+            }
+            builder.append(Csv.LINE_SEPARATOR);
+        }
+        return count;
+    }
+
+    /**
+     * @return a Poisson distributed count, by Knuth's multiplication of uniforms. A sum of Poisson counts is a
+     * Poisson count of the summed means, which keeps every part small enough for exp(-part).
+     */
+    static int poisson(double mean, SplittableRandom random) {
+        int count = 0;
+        for (double remaining = mean; remaining > 0; remaining -= POISSON_PART) {
+            double limit = Math.exp(-Math.min(remaining, POISSON_PART));
+            double product = random.nextDouble();
+            while (product > limit) {
+                count++;
+                product *= random.nextDouble();
+            }
+        }
+        return count;
+    }
+
+    private static List<JsonObject> withoutMetadata(List<JsonObject> rows) {
+        List<JsonObject> source = new ArrayList<>(rows.size());
+        for (JsonObject row : rows) {
+            if (!Csv.isMetadata(row)) source.add(row);
+        }
+        return source;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException exception) {
+            throw new IOException(exception.getCause().getMessage(), exception.getCause());
+        }
+    }
+
+    private static class Chunk {
+
+        private final byte[] bytes;
+        private final long rows;
+        private final int pageSize;
+
+        Chunk(byte[] bytes, long rows, int pageSize) {
+            this.bytes = bytes;
+            this.rows = rows;
+            this.pageSize = pageSize;
+        }
+    }
+}
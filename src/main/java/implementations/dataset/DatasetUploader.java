@@ -0,0 +1,240 @@
+package implementations.dataset;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import implementations.util.ClientConfig;
+import implementations.util.HttpResponse;
+import implementations.util.NetworkCommunication;
+import implementations.util.RequestBody;
+import implementations.util.ResponseParser;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class uploads a local CSV or JSON lines file as a dataset, so the file does not have to be published
+ * on a web server first. The file is sent in parts, each one streamed from the file channel with chunked transfer
+ * encoding, so it is never loaded in memory. Parts go to upload/datasetName under the dataset microservice:
+ * <ul>
+ * <li>PUT with a Content-Range header such as bytes 0-8388607/52428800 appends a part. Learning Orchestra answers
+ * the number of bytes it holds, or 409 with that number when the part does not start there. After the last part it
+ * answers the URL of the dataset being inserted, as an insertion from a URI does.</li>
+ * <li>GET answers the number of bytes held for the dataset, 0 when no upload started.</li>
+ * </ul>
+ * A part failing with a network error or a 5xx status is sent again from the offset Learning Orchestra holds, and an
+ * interrupted upload resumes the same way. When Learning Orchestra already holds the whole file, the answer to the
+ * last part was lost and the upload returns the URL of the dataset without sending anything. An offset beyond the
+ * end of the file fails the upload at once.
+ */
+public class DatasetUploader {
+
+    public static final int DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_MAX_RETRIES = 3;
+
+    private static final String MICROSERVICE = "microservice_dataset";
+    private static final String UPLOAD = "upload/";
+
+    private final Supplier<ClientConfig> config;
+    private final int partSize;
+    private final int maxRetries;
+
+    public DatasetUploader(Supplier<ClientConfig> config) {
+        this(config, DEFAULT_PART_SIZE, DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * @param partSize   is the number of bytes sent per request
+     * @param maxRetries is the number of failures in a row after which the upload gives up
+     */
+    public DatasetUploader(Supplier<ClientConfig> config, int partSize, int maxRetries) {
+        if (partSize < 1) throw new IllegalArgumentException("partSize must be positive");
+        if (maxRetries < 0) throw new IllegalArgumentException("maxRetries must not be negative");
+
+        this.config = config;
+        this.partSize = partSize;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * @param file        is a CSV file, or JSON lines when its name ends with .jsonl or .ndjson
+     * @param datasetName is the dataset name used inside the Learning Orchestra
+     * @param resume      continues an earlier upload of the same file instead of starting over
+     * @return the answer to the last part, the URL of the dataset being inserted, or the error message returned by
+     * Learning Orchestra
+     * @throws IOException if the file cannot be read, a part still fails after maxRetries attempts or Learning
+     *                     Orchestra holds more bytes than the file has
+     */
+    public JsonObject upload(Path file, String datasetName, boolean resume, UploadListener listener)
+            throws IOException {
+        ClientConfig clientConfig = config.get();
+        URL url = clientConfig.url(MICROSERVICE, UPLOAD + datasetName);
+        String contentType = contentType(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long total = channel.size();
+            if (total == 0) throw new IOException("cannot upload the empty file " + file);
+
+            // a negative offset is asked to Learning Orchestra before the next part
+            long offset = resume ? -1 : 0;
+            long resumedAt = -1;
+            long start = System.nanoTime();
+            int failures = 0;
+
+            while (true) {
+                try {
+                    if (offset < 0) offset = uploadedBytes(url);
+                    if (offset > total)
+                        throw new OffsetException("Learning Orchestra holds " + offset + " bytes of " + datasetName
+                                + ", the file has " + total);
+                    if (resumedAt < 0) resumedAt = offset;
+                    if (offset == total) {
+                        // every byte arrived but the answer to the last part was lost, the insertion started then
+                        listener.progress(total, total, rate(total - resumedAt, start));
+                        return inserted(clientConfig, datasetName);
+                    }
+
+                    long count = Math.min(partSize, total - offset);
+                    Part part = put(url, channel, offset, count, total, contentType);
+                    if (part.status == 409 && isOffset(part.response)) {
+                        // Learning Orchestra holds another offset, for instance after a part whose answer was lost
+                        offset = offset(part.response);
+                        if (++failures > maxRetries)
+                            throw new IOException("the upload of " + datasetName + " keeps restarting");
+                        continue;
+                    }
+                    if (part.status >= 500)
+                        throw new IOException("Learning Orchestra answered " + part.status + " " + part.response);
+                    if (part.status >= 400 || offset + count == total) {
+                        if (part.status < 400)
+                            listener.progress(total, total, rate(total - resumedAt, start));
+                        return part.response;
+                    }
+
+                    offset = offset(part.response);
+                    failures = 0;
+                    listener.progress(offset, total, rate(offset - resumedAt, start));
+
+                } catch (IOException exception) {
+                    if (exception instanceof OffsetException || ++failures > maxRetries) throw exception;
+                    pause(clientConfig.getWaitTime());
+                    offset = -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes Learning Orchestra holds for an upload of the dataset
+     */
+    public long uploadedBytes(String datasetName) throws IOException {
+        return uploadedBytes(config.get().url(MICROSERVICE, UPLOAD + datasetName));
+    }
+
+    private static long uploadedBytes(URL url) throws IOException {
+        try (HttpResponse response = NetworkCommunication.getTransport().execute("GET", url, headers(), null)) {
+            if (response.getStatus() == 404) return 0;
+            if (response.getStatus() >= 400)
+                throw new IOException("Learning Orchestra answered " + response.getStatus()
+                        + " to the upload offset of " + url);
+            return offset(ResponseParser.parseObject(response.getBody()));
+        }
+    }
+
+    /**
+     * @return the answer Learning Orchestra gives to the last part, the URL of the dataset being inserted
+     */
+    private static JsonObject inserted(ClientConfig clientConfig, String datasetName) throws IOException {
+        JsonObject response = new JsonObject();
+        response.addProperty(ResponseParser.RESULT,
+                clientConfig.url(MICROSERVICE, datasetName + clientConfig.getSearchContent()).getFile());
+        return response;
+    }
+
+    private static Part put(URL url, FileChannel channel, long offset, long count, long total,
+                            String contentType) throws IOException {
+        Map<String, String> headers = headers();
+        headers.put("Content-Type", contentType);
+        headers.put("Content-Range", "bytes " + offset + "-" + (offset + count - 1) + "/" + total);
+
+        try (HttpResponse response = NetworkCommunication.getTransport().execute(
+                "PUT", url, headers, RequestBody.of(channel, offset, count, true))) {
+            return new Part(response.getStatus(), ResponseParser.parseObject(response.getBody()));
+        }
+    }
+
+    private static long offset(JsonObject response) throws IOException {
+        JsonElement result = response == null ? null : response.get(ResponseParser.RESULT);
+        try {
+            return Long.parseLong(result.getAsString());
+        } catch (RuntimeException exception) {
+            throw new IOException("Learning Orchestra answered " + response + " instead of an offset", exception);
+        }
+    }
+
+    private static boolean isOffset(JsonObject response) {
+        JsonElement result = response == null ? null : response.get(ResponseParser.RESULT);
+        return result != null && result.isJsonPrimitive() && result.getAsString().matches("\\d+");
+    }
+
+    private static String contentType(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson"))
+            return "application/x-ndjson";
+        return "text/csv";
+    }
+
+    private static Map<String, String> headers() {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept-Charset", "UTF-8");
+        return headers;
+    }
+
+    private static double rate(long bytes, long start) {
+        long elapsed = System.nanoTime() - start;
+        return elapsed == 0 ? 0 : bytes * 1e9 / elapsed;
+    }
+
+    private static void pause(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while retrying the upload");
+        }
+    }
+
+    /**
+     * @summary An offset beyond the end of the file, Learning Orchestra holds another file and sending it again does
+     * not help.
+     */
+    private static class OffsetException extends IOException {
+
+        private static final long serialVersionUID = 4718255076204336981L;
+
+        OffsetException(String message) {
+            super(message);
+        }
+    }
+
+    private static class Part {
+
+        private final int status;
+        private final JsonObject response;
+
+        Part(int status, JsonObject response) {
+            this.status = status;
+            this.response = response;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package implementations.dataset;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class holds what an export of a dataset wrote: the rows, the bytes and the non empty chunks, along
+ * with the parallelism and chunk size it ran with, how long it took and the resulting throughput.
+ */
+public class ExportStatistics {
+
+    private final String datasetName;
+    private final int parallelism;
+    private final int chunkSize;
+    private final long rows;
+    private final long bytes;
+    private final int chunks;
+    private final long elapsedNanos;
+
+    public ExportStatistics(String datasetName, int parallelism, int chunkSize,
+                            long rows, long bytes, int chunks, long elapsedNanos) {
+        this.datasetName = datasetName;
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.rows = rows;
+        this.bytes = bytes;
+        this.chunks = chunks;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getDatasetName() {
+        return datasetName;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rows * 1e9 / elapsedNanos;
+    }
+
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d rows, %d bytes, %d chunks of %d with parallelism %d in %d ms "
+                        + "(%.1f rows/s, %.1f KiB/s)",
+                datasetName, rows, bytes, chunks, chunkSize, parallelism, getElapsedMillis(),
+                getRowsPerSecond(), getBytesPerSecond() / 1024);
+    }
+}
@@ -0,0 +1,269 @@
+package implementations.dataset;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import implementations.dataset.columns.ColumnStore;
+import implementations.dataset.columns.DatasetSchema;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class keeps full snapshots of finished datasets on disk as column stores. A snapshot is addressed
+ * by a digest of the dataset name, its timeCreated and its column types, so a dataset replaced under the same name
+ * gets a new address and the old snapshot is never served. A lookup costs one metadata request, a hit then maps the
+ * snapshot from disk instead of pulling the content again. Snapshots survive the JVM, the last access time is the
+ * modification time of the snapshot directory. When the snapshots exceed the size budget, the least recently used
+ * ones are deleted. It is thread safe.
+ */
+public class SnapshotCache {
+
+    public static final long DEFAULT_MAX_BYTES = 1L << 30;
+
+    private static final String TEMPORARY_PREFIX = "pull-";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final Map<String, Snapshot> snapshots = new HashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param directory holds the snapshots, the snapshots already there are reused
+     * @param maxBytes  is the size budget of the snapshots on disk
+     */
+    public SnapshotCache(Path directory, long maxBytes) throws IOException {
+        if (maxBytes < 1) throw new IllegalArgumentException("maxBytes must be positive");
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        Files.createDirectories(directory);
+
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                String key = entry.getFileName().toString();
+                if (key.startsWith(TEMPORARY_PREFIX))
+                    delete(entry);
+                else if (ColumnStore.exists(entry))
+                    snapshots.put(key, new Snapshot(key, ColumnStore.readProperty(entry, "datasetName"),
+                            ColumnStore.readProperty(entry, "timeCreated"), size(entry),
+                            Files.getLastModifiedTime(entry).toMillis()));
+                else
+                    delete(entry);
+            }
+        }
+        evict(null);
+    }
+
+    /**
+     * @return a cache in learning-orchestra-snapshots under the temporary directory, with the default budget
+     */
+    public static SnapshotCache inTemporaryDirectory() throws IOException {
+        return new SnapshotCache(Paths.get(System.getProperty("java.io.tmpdir"), "learning-orchestra-snapshots"),
+                DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param dataset     pulls the content and validates the snapshot
+     * @param datasetName is the name of the dataset
+     * @param types       maps a field to number or string, as given to the datatype microservice
+     * @param pageSize    is the number of tuples or registers requested per page on a miss
+     * @return the snapshot of the dataset content, or null if the dataset does not exist, is not finished or
+     * cannot be pulled
+     */
+    public ColumnStore get(DatasetImplementation dataset, String datasetName, Map<String, String> types,
+                           int pageSize) throws IOException {
+        Result metadata = dataset.fetchDatasetMetadata(datasetName);
+        if (metadata == null || !"true".equals(metadata.getFinished()) || metadata.getTimeCreated() == null)
+            return null;
+
+        String key = key(datasetName, metadata.getTimeCreated(), DatasetSchema.of(metadata, types));
+        Path snapshotDirectory = directory.resolve(key);
+
+        synchronized (snapshots) {
+            Snapshot snapshot = snapshots.get(key);
+            if (snapshot != null && ColumnStore.exists(snapshotDirectory)) {
+                snapshot.lastAccess = System.currentTimeMillis();
+                Files.setLastModifiedTime(snapshotDirectory, FileTime.fromMillis(snapshot.lastAccess));
+                hits.incrementAndGet();
+                return ColumnStore.open(snapshotDirectory);
+            }
+        }
+        misses.incrementAndGet();
+
+        // pulled aside and moved in place, concurrent pulls of the same snapshot do not see each other
+        Path temporary = directory.resolve(TEMPORARY_PREFIX + UUID.randomUUID());
+        if (!dataset.writeDataset(metadata, datasetName, types, temporary, pageSize)) {
+            delete(temporary);
+            return null;
+        }
+        // the pages read may belong to a dataset replaced during the pull, the metadata is read again uncached
+        Result current = dataset.fetchDatasetMetadata(datasetName);
+        if (current == null || !metadata.getTimeCreated().equals(current.getTimeCreated())) {
+            delete(temporary);
+            return null;
+        }
+
+        synchronized (snapshots) {
+            try {
+                Files.move(temporary, snapshotDirectory, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException exception) {
+                delete(temporary);
+            }
+            snapshots.put(key, new Snapshot(key, datasetName, metadata.getTimeCreated(), size(snapshotDirectory),
+                    System.currentTimeMillis()));
+            removeReplaced(datasetName, metadata.getTimeCreated());
+            evict(key);
+        }
+        return ColumnStore.open(snapshotDirectory);
+    }
+
+    /**
+     * @summary Deletes the snapshots of the dataset, for instance after the client changed its content.
+     */
+    public void invalidate(String datasetName) {
+        synchronized (snapshots) {
+            removeReplaced(datasetName, null);
+        }
+    }
+
+    public long getSizeInBytes() {
+        synchronized (snapshots) {
+            long size = 0;
+            for (Snapshot snapshot : snapshots.values())
+                size += snapshot.size;
+            return size;
+        }
+    }
+
+    public int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    /**
+     * @param timeCreated identifies the current content of the dataset, its snapshots are kept. Null removes every
+     *                    snapshot of the dataset.
+     */
+    private void removeReplaced(String datasetName, String timeCreated) {
+        Iterator<Snapshot> iterator = snapshots.values().iterator();
+        while (iterator.hasNext()) {
+            Snapshot snapshot = iterator.next();
+            if (datasetName.equals(snapshot.datasetName) && !snapshot.timeCreated.equals(timeCreated)) {
+                iterator.remove();
+                delete(directory.resolve(snapshot.key));
+            }
+        }
+    }
+
+    /**
+     * @param keptKey is a snapshot that is never evicted, the one just pulled, even when it alone exceeds the budget
+     */
+    private void evict(String keptKey) {
+        long size = 0;
+        for (Snapshot snapshot : snapshots.values())
+            size += snapshot.size;
+        if (size <= maxBytes) return;
+
+        List<Snapshot> leastRecentlyUsed = snapshots.values().stream()
+                .sorted(Comparator.comparingLong(snapshot -> snapshot.lastAccess))
+                .collect(Collectors.toList());
+        for (Snapshot snapshot : leastRecentlyUsed) {
+            if (size <= maxBytes) break;
+            if (snapshot.key.equals(keptKey)) continue;
+
+            snapshots.remove(snapshot.key);
+            delete(directory.resolve(snapshot.key));
+            size -= snapshot.size;
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static String key(String datasetName, String timeCreated, DatasetSchema schema) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((datasetName + '\0' + timeCreated + '\0' + schema)
+                    .getBytes(StandardCharsets.UTF_8));
+            StringBuilder key = new StringBuilder();
+            for (int index = 0; index < 16; index++)
+                key.append(String.format("%02x", hash[index]));
+            return key.toString();
+        } catch (NoSuchAlgorithmException exception) {
+            // every Java platform implements SHA-256
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static long size(Path snapshotDirectory) throws IOException {
+        try (Stream<Path> files = Files.list(snapshotDirectory)) {
+            long size = 0;
+            for (Path file : (Iterable<Path>) files::iterator)
+                size += Files.size(file);
+            return size;
+        }
+    }
+
+    /**
+     * @summary Deletes a snapshot directory. A snapshot still mapped by a store cannot be deleted on some
+     * platforms, it is then left behind and deleted when the cache is created again.
+     */
+    private static void delete(Path snapshotDirectory) {
+        try (Stream<Path> files = Files.walk(snapshotDirectory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator)
+                Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+        }
+    }
+
+    private static class Snapshot {
+
+        private final String key;
+        private final String datasetName;
+        private final String timeCreated;
+        private final long size;
+        private long lastAccess;
+
+        Snapshot(String key, String datasetName, String timeCreated, long size, long lastAccess) {
+            this.key = key;
+            this.datasetName = String.valueOf(datasetName);
+            this.timeCreated = String.valueOf(timeCreated);
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package implementations.dataset;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Receives the progress of a dataset upload, after every part accepted by Learning Orchestra. It is called
+ * from the uploading thread, so it must return quickly.
+ */
+public interface UploadListener {
+
+    UploadListener NONE = (sentBytes, totalBytes, bytesPerSecond) -> {
+    };
+
+    /**
+     * @param sentBytes      is the number of bytes of the file Learning Orchestra holds, parts sent by an earlier
+     *                       attempt included
+     * @param totalBytes     is the size of the file
+     * @param bytesPerSecond is the throughput of this upload so far, parts resumed from an earlier attempt excluded
+     */
+    void progress(long sentBytes, long totalBytes, double bytesPerSecond);
+}
@@ -0,0 +1,23 @@
+package implementations.dataset.columns;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A single column of a decoded page. Rows are addressed by their position in the page.
+ */
+public interface Column {
+
+    String getName();
+
+    ColumnType getType();
+
+    int size();
+
+    boolean isNull(int row);
+
+    /**
+     * @return the value boxed as a Double or a String, or null. Prefer the typed getters of the column classes on
+     * hot paths.
+     */
+    Object get(int row);
+}
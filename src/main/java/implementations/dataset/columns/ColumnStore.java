@@ -0,0 +1,173 @@
+package implementations.dataset.columns;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A dataset pulled to disk by a ColumnStoreWriter and read through memory mapped files. The values stay
+ * in the operating system page cache instead of the Java heap, so scanning a store of many gigabytes causes no
+ * garbage collection, and scanning it again reads no page from the network. It is immutable and thread safe.
+ * Java 8 cannot unmap a file on demand, the mappings are released when the store is garbage collected.
+ */
+public final class ColumnStore {
+
+    static final String DESCRIPTION = "store.properties";
+    static final String IDS = "ids.bin";
+    static final String ROWS = "rows";
+    static final String FIELD_PREFIX = "field.";
+    static final String CUSTOM_PREFIX = "custom.";
+    static final String PLAIN = "plain";
+
+    private final Path directory;
+    private final DatasetSchema schema;
+    private final Properties properties;
+    private final long rowCount;
+    private final MappedFile ids;
+    private final Object[] columns;
+
+    private ColumnStore(Path directory, DatasetSchema schema, Properties properties, long rowCount,
+                        MappedFile ids, Object[] columns) {
+        this.directory = directory;
+        this.schema = schema;
+        this.properties = properties;
+        this.rowCount = rowCount;
+        this.ids = ids;
+        this.columns = columns;
+    }
+
+    static String columnFile(int index) {
+        return "column-" + index + ".bin";
+    }
+
+    static String dictionaryFile(int index) {
+        return "dictionary-" + index + ".bin";
+    }
+
+    static String valuesFile(int index) {
+        return "values-" + index + ".bin";
+    }
+
+    /**
+     * @return whether the directory holds a store completely written
+     */
+    public static boolean exists(Path directory) {
+        return Files.isRegularFile(directory.resolve(DESCRIPTION));
+    }
+
+    /**
+     * @throws IOException if the store is missing, was not completely written or its files are truncated
+     */
+    public static ColumnStore open(Path directory) throws IOException {
+        Properties properties = load(directory);
+
+        long rowCount = Long.parseLong(properties.getProperty(ROWS, "0"));
+        List<String> names = new ArrayList<>();
+        List<ColumnType> types = new ArrayList<>();
+        for (int index = 0; properties.getProperty(FIELD_PREFIX + index + ".name") != null; index++) {
+            names.add(properties.getProperty(FIELD_PREFIX + index + ".name"));
+            types.add(ColumnType.valueOf(properties.getProperty(FIELD_PREFIX + index + ".type")));
+        }
+        DatasetSchema schema = new DatasetSchema(names, types);
+
+        MappedFile ids = map(directory.resolve(IDS), rowCount * Long.BYTES);
+        Object[] columns = new Object[schema.size()];
+        for (int index = 0; index < schema.size(); index++) {
+            Path columnPath = directory.resolve(columnFile(index));
+            if (schema.getType(index) == ColumnType.NUMBER)
+                columns[index] = new MappedNumberColumn(schema.getName(index),
+                        map(columnPath, rowCount * Double.BYTES), rowCount);
+            else if (PLAIN.equals(properties.getProperty(FIELD_PREFIX + index + ".encoding")))
+                columns[index] = MappedStringColumn.plain(schema.getName(index),
+                        map(columnPath, rowCount * Long.BYTES), new MappedFile(directory.resolve(valuesFile(index))),
+                        rowCount);
+            else
+                columns[index] = new MappedStringColumn(schema.getName(index),
+                        map(columnPath, rowCount * Integer.BYTES),
+                        new MappedFile(directory.resolve(dictionaryFile(index))), rowCount);
+        }
+        return new ColumnStore(directory, schema, properties, rowCount, ids, columns);
+    }
+
+    /**
+     * @return a custom property set by the writer, or null, read without mapping the store
+     * @throws IOException if the store is missing or was not completely written
+     */
+    public static String readProperty(Path directory, String key) throws IOException {
+        return load(directory).getProperty(CUSTOM_PREFIX + key);
+    }
+
+    private static Properties load(Path directory) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(directory.resolve(DESCRIPTION))) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+
+    private static MappedFile map(Path path, long expectedSize) throws IOException {
+        MappedFile file = new MappedFile(path);
+        if (file.size() < expectedSize)
+            throw new IOException(path + " has " + file.size() + " bytes, " + expectedSize + " were expected");
+        return file;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public DatasetSchema getSchema() {
+        return schema;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the document id of the row, its _id in Learning Orchestra
+     */
+    public long getId(long row) {
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("row " + row + " of a store with " + rowCount + " rows");
+        return ids.getLong(row << 3);
+    }
+
+    public MappedNumberColumn getNumberColumn(String name) {
+        Object column = getColumn(name);
+        if (!(column instanceof MappedNumberColumn))
+            throw new IllegalArgumentException("field " + name + " is a string column");
+        return (MappedNumberColumn) column;
+    }
+
+    public MappedStringColumn getStringColumn(String name) {
+        Object column = getColumn(name);
+        if (!(column instanceof MappedStringColumn))
+            throw new IllegalArgumentException("field " + name + " is a number column");
+        return (MappedStringColumn) column;
+    }
+
+    private Object getColumn(String name) {
+        int index = schema.indexOf(name);
+        if (index < 0) throw new IllegalArgumentException("no field " + name + " in " + schema);
+        return columns[index];
+    }
+
+    /**
+     * @return a custom property set by the writer, or null
+     */
+    public String getProperty(String key) {
+        return properties.getProperty(CUSTOM_PREFIX + key);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnStore[" + directory + ", rows=" + rowCount + ", " + schema + "]";
+    }
+}
@@ -0,0 +1,294 @@
+package implementations.dataset.columns;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class spills decoded pages into a column store directory, one file per field in the order of the
+ * schema. Values go through direct buffers to the file channels, so a pulled dataset never accumulates on the heap,
+ * only the string dictionaries do, and those are bounded by the decoder. A string column whose dictionary filled
+ * up arrives plain: the codes written so far are rewritten as plain values, the dictionary is released and the
+ * strings of every later page go straight to the file. The store description is written by finish, closing the
+ * writer before that leaves an interrupted pull that cannot be opened. It is not thread safe.
+ */
+public class ColumnStoreWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final DatasetSchema schema;
+    private final Properties properties = new Properties();
+    private final FileChannel ids;
+    private final FileChannel[] columns;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private final StringDictionary[] dictionaries;
+    private final FileChannel[] values;
+    private final long[] valueEnds;
+    private ByteBuffer valueBuffer;
+    private long rowCount;
+    private boolean closed;
+
+    /**
+     * @param directory is created if needed, the files of a previous store in it are replaced
+     */
+    public ColumnStoreWriter(Path directory, DatasetSchema schema) throws IOException {
+        this.directory = directory;
+        this.schema = schema;
+        this.dictionaries = new StringDictionary[schema.size()];
+        this.values = new FileChannel[schema.size()];
+        this.valueEnds = new long[schema.size()];
+
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(ColumnStore.DESCRIPTION));
+        ids = create(directory.resolve(ColumnStore.IDS));
+        columns = new FileChannel[schema.size()];
+        for (int index = 0; index < schema.size(); index++)
+            columns[index] = create(directory.resolve(ColumnStore.columnFile(index)));
+    }
+
+    private static FileChannel create(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @summary Stores a custom property in the store description, for instance the timeCreated of the metadata
+     * the content was pulled with.
+     */
+    public void setProperty(String key, String value) {
+        properties.setProperty(ColumnStore.CUSTOM_PREFIX + key, value);
+    }
+
+    /**
+     * @param page is a page of the same schema. Pages must come from one decoder, this way the string codes of
+     *             every page refer to the same dictionary.
+     */
+    public void append(ColumnarPage page) throws IOException {
+        if (closed) throw new IllegalStateException("the store is closed");
+        if (page.getSchema() != schema && !page.getSchema().getNames().equals(schema.getNames()))
+            throw new IllegalArgumentException("the page schema " + page.getSchema() + " is not " + schema);
+
+        int rows = page.getRowCount();
+        for (int row = 0; row < rows; row++) {
+            if (buffer.remaining() < Long.BYTES) flush(ids);
+            buffer.putLong(page.getId(row));
+        }
+        flush(ids);
+
+        List<Column> pageColumns = page.getColumns();
+        for (int index = 0; index < schema.size(); index++) {
+            Column column = pageColumns.get(index);
+            if (column instanceof NumberColumn)
+                appendNumbers((NumberColumn) column, columns[index]);
+            else
+                appendStrings((StringColumn) column, index);
+        }
+        rowCount += rows;
+    }
+
+    private void appendNumbers(NumberColumn column, FileChannel channel) throws IOException {
+        for (int row = 0; row < column.size(); row++) {
+            if (buffer.remaining() < Double.BYTES) flush(channel);
+            // doubleToLongBits collapses every NaN to the canonical one, which is not the null pattern
+            buffer.putLong(column.isNull(row)
+                    ? MappedNumberColumn.NULL_BITS : Double.doubleToLongBits(column.getDouble(row)));
+        }
+        flush(channel);
+    }
+
+    private void appendStrings(StringColumn column, int index) throws IOException {
+        if (values[index] == null && column.isDictionaryEncoded()) {
+            appendCodes(column, index);
+            return;
+        }
+        if (values[index] == null) toPlain(index);
+
+        for (int row = 0; row < column.size(); row++)
+            appendValue(index, columns[index], column.getString(row));
+        flush(columns[index]);
+        flush(valueBuffer, values[index]);
+    }
+
+    private void appendCodes(StringColumn column, int index) throws IOException {
+        if (dictionaries[index] == null)
+            dictionaries[index] = column.getDictionary();
+        else if (dictionaries[index] != column.getDictionary())
+            throw new IllegalArgumentException("the pages of " + column.getName() + " come from different decoders");
+
+        for (int row = 0; row < column.size(); row++) {
+            if (buffer.remaining() < Integer.BYTES) flush(columns[index]);
+            buffer.putInt(column.getCode(row));
+        }
+        flush(columns[index]);
+    }
+
+    /**
+     * @summary Plain layout: the column file holds the end offset of every row in the values file, inverted when
+     * the row is null, and the values file the UTF-8 bytes of the values one after the other.
+     */
+    private void appendValue(int index, FileChannel ends, String value) throws IOException {
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            int written = 0;
+            while (written < bytes.length) {
+                if (!valueBuffer.hasRemaining()) flush(valueBuffer, values[index]);
+                int length = Math.min(valueBuffer.remaining(), bytes.length - written);
+                valueBuffer.put(bytes, written, length);
+                written += length;
+            }
+            valueEnds[index] += bytes.length;
+        }
+        if (buffer.remaining() < Long.BYTES) flush(ends);
+        buffer.putLong(value == null ? ~valueEnds[index] : valueEnds[index]);
+    }
+
+    /**
+     * @summary Rewrites the codes written so far as plain values, then releases the dictionary. The ends go to a
+     * file aside that replaces the codes once complete.
+     */
+    private void toPlain(int index) throws IOException {
+        if (valueBuffer == null)
+            valueBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        values[index] = create(directory.resolve(ColumnStore.valuesFile(index)));
+
+        Path columnPath = directory.resolve(ColumnStore.columnFile(index));
+        Path temporary = directory.resolve(ColumnStore.columnFile(index) + ".tmp");
+        StringDictionary dictionary = dictionaries[index];
+        ByteBuffer codes = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel reader = FileChannel.open(columnPath, StandardOpenOption.READ);
+             FileChannel ends = create(temporary)) {
+            long remaining = rowCount;
+            while (remaining > 0) {
+                codes.clear();
+                codes.limit((int) Math.min(codes.capacity(), remaining * Integer.BYTES));
+                while (codes.hasRemaining()) {
+                    if (reader.read(codes) < 0) throw new EOFException(columnPath + " is truncated");
+                }
+                codes.flip();
+                while (codes.hasRemaining()) {
+                    int code = codes.getInt();
+                    appendValue(index, ends, code < 0 ? null : dictionary.decode(code));
+                    remaining--;
+                }
+            }
+            flush(ends);
+            flush(valueBuffer, values[index]);
+        }
+
+        columns[index].close();
+        Files.move(temporary, columnPath, StandardCopyOption.REPLACE_EXISTING);
+        columns[index] = FileChannel.open(columnPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        dictionaries[index] = null;
+    }
+
+    private void flush(FileChannel channel) throws IOException {
+        flush(buffer, channel);
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * @summary Writes the dictionaries and the store description, until then the store cannot be opened. The
+     * writer is closed afterwards.
+     */
+    public void finish() throws IOException {
+        if (closed) throw new IllegalStateException("the store is closed");
+
+        try {
+            for (int index = 0; index < schema.size(); index++) {
+                if (schema.getType(index) == ColumnType.STRING && values[index] == null)
+                    writeDictionary(directory.resolve(ColumnStore.dictionaryFile(index)), dictionaries[index]);
+            }
+        } finally {
+            close();
+        }
+
+        properties.setProperty(ColumnStore.ROWS, Long.toString(rowCount));
+        for (int index = 0; index < schema.size(); index++) {
+            properties.setProperty(ColumnStore.FIELD_PREFIX + index + ".name", schema.getName(index));
+            properties.setProperty(ColumnStore.FIELD_PREFIX + index + ".type", schema.getType(index).name());
+            if (values[index] != null)
+                properties.setProperty(ColumnStore.FIELD_PREFIX + index + ".encoding", ColumnStore.PLAIN);
+        }
+
+        // written aside and moved, a crash leaves either no description or a complete one
+        Path temporary = directory.resolve(ColumnStore.DESCRIPTION + ".tmp");
+        try (OutputStream outputStream = Files.newOutputStream(temporary)) {
+            properties.store(outputStream, "Learning Orchestra column store");
+        }
+        Files.move(temporary, directory.resolve(ColumnStore.DESCRIPTION),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @summary Closes the files. The store stays incomplete unless finish was called.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+
+        ids.close();
+        for (FileChannel column : columns)
+            column.close();
+        for (FileChannel value : values) {
+            if (value != null) value.close();
+        }
+    }
+
+    /**
+     * @summary Layout: the value count as an int and 4 bytes of padding, count + 1 long offsets from the start of
+     * the file, then the UTF-8 bytes of the values one after the other.
+     */
+    private void writeDictionary(Path path, StringDictionary dictionary) throws IOException {
+        List<String> values = dictionary != null ? dictionary.values() : new ArrayList<String>();
+        List<byte[]> encoded = new ArrayList<>(values.size());
+        for (String value : values)
+            encoded.add(value.getBytes(StandardCharsets.UTF_8));
+
+        try (FileChannel channel = create(path)) {
+            buffer.putInt(values.size()).putInt(0);
+            long offset = 8 + 8L * (values.size() + 1);
+            buffer.putLong(offset);
+            for (byte[] bytes : encoded) {
+                if (buffer.remaining() < Long.BYTES) flush(channel);
+                offset += bytes.length;
+                buffer.putLong(offset);
+            }
+            for (byte[] bytes : encoded) {
+                int written = 0;
+                while (written < bytes.length) {
+                    if (!buffer.hasRemaining()) flush(channel);
+                    int length = Math.min(buffer.remaining(), bytes.length - written);
+                    buffer.put(bytes, written, length);
+                    written += length;
+                }
+            }
+            flush(channel);
+        }
+    }
+}
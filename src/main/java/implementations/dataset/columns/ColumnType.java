@@ -0,0 +1,21 @@
+package implementations.dataset.columns;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The column types of a dataset. They match the types accepted by the datatype microservice, numbers are
+ * kept in primitive arrays and strings are dictionary encoded.
+ */
+public enum ColumnType {
+
+    NUMBER,
+    STRING;
+
+    /**
+     * @param datatype is a type of the datatype microservice, number or string
+     * @return the matching column type, STRING when the type is unknown or null
+     */
+    public static ColumnType fromDatatype(String datatype) {
+        return "number".equalsIgnoreCase(datatype) ? NUMBER : STRING;
+    }
+}
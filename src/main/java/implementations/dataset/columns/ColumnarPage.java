@@ -0,0 +1,83 @@
+package implementations.dataset.columns;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A page of dataset content stored by column. Numeric columns are double arrays and string columns are
+ * dictionary codes, so a row costs a few bytes per field instead of a tree of JSON objects. A string column with
+ * more distinct values than a dictionary holds, StringDictionary.DEFAULT_MAX_VALUES by default, is plain from the
+ * page where its dictionary filled up: it holds the strings of the page, see StringColumn.isDictionaryEncoded.
+ */
+public class ColumnarPage {
+
+    private final DatasetSchema schema;
+    private final long[] ids;
+    private final List<Column> columns;
+    private final int rowCount;
+    private final int documentCount;
+
+    public ColumnarPage(DatasetSchema schema, long[] ids, List<Column> columns, int rowCount, int documentCount) {
+        this.schema = schema;
+        this.ids = ids;
+        this.columns = Collections.unmodifiableList(columns);
+        this.rowCount = rowCount;
+        this.documentCount = documentCount;
+    }
+
+    public DatasetSchema getSchema() {
+        return schema;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the number of documents in the response, including the metadata document that is not a row. A page
+     * with fewer documents than the requested page size is the last one.
+     */
+    public int getDocumentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @return the document id of the row, its _id in Learning Orchestra
+     */
+    public long getId(int row) {
+        if (row < 0 || row >= rowCount)
+            throw new IndexOutOfBoundsException("row " + row + " of a page with " + rowCount + " rows");
+        return ids[row];
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    public Column getColumn(String name) {
+        int index = schema.indexOf(name);
+        if (index < 0) throw new IllegalArgumentException("no field " + name + " in " + schema);
+        return columns.get(index);
+    }
+
+    public NumberColumn getNumberColumn(String name) {
+        Column column = getColumn(name);
+        if (!(column instanceof NumberColumn))
+            throw new IllegalArgumentException("field " + name + " is a " + column.getType() + " column");
+        return (NumberColumn) column;
+    }
+
+    public StringColumn getStringColumn(String name) {
+        Column column = getColumn(name);
+        if (!(column instanceof StringColumn))
+            throw new IllegalArgumentException("field " + name + " is a " + column.getType() + " column");
+        return (StringColumn) column;
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnarPage[rows=" + rowCount + ", " + schema + "]";
+    }
+}
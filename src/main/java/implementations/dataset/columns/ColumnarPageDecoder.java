@@ -0,0 +1,278 @@
+package implementations.dataset.columns;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import implementations.util.ResponseParser;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class decodes dataset content straight from the response stream into columns, without building
+ * JSON objects for the rows. The string dictionaries live as long as the decoder, so pages of the same dataset
+ * decoded by one decoder share their codes. A dictionary is bounded, see StringDictionary: the value that would
+ * overflow it turns its column plain, in the page being decoded and in every later page, and the decoder drops the
+ * dictionary. The memory of a decoder is bounded this way whatever the number of pages. It is not thread safe.
+ */
+public class ColumnarPageDecoder {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final DatasetSchema schema;
+    private final StringDictionary[] dictionaries;
+
+    public ColumnarPageDecoder(DatasetSchema schema) {
+        this(schema, StringDictionary.DEFAULT_MAX_VALUES, StringDictionary.DEFAULT_MAX_CHARS);
+    }
+
+    /**
+     * @param maxDictionaryValues is the number of distinct values of a string column before it turns plain
+     * @param maxDictionaryChars  is the total length of those values before it turns plain
+     */
+    public ColumnarPageDecoder(DatasetSchema schema, int maxDictionaryValues, long maxDictionaryChars) {
+        this.schema = schema;
+        this.dictionaries = new StringDictionary[schema.size()];
+        for (int index = 0; index < schema.size(); index++) {
+            if (schema.getType(index) == ColumnType.STRING)
+                dictionaries[index] = new StringDictionary(maxDictionaryValues, maxDictionaryChars);
+        }
+    }
+
+    public DatasetSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * @param inputStream is a Learning Orchestra content response, {"result": [rows]}
+     * @return the rows of the result array, without the metadata document whose _id is 0
+     * @throws IOException if the body cannot be read or the result is not an array, for instance an error message
+     */
+    public ColumnarPage decode(InputStream inputStream) throws IOException {
+        JsonReader reader = ResponseParser.newReader(inputStream);
+        Builder builder = new Builder();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (!ResponseParser.RESULT.equals(name)) {
+                reader.skipValue();
+                continue;
+            }
+            if (reader.peek() != JsonToken.BEGIN_ARRAY)
+                throw new IOException("the response has no rows: " + readScalar(reader));
+
+            reader.beginArray();
+            while (reader.hasNext())
+                builder.readRow(reader);
+            reader.endArray();
+        }
+        reader.endObject();
+
+        return builder.build();
+    }
+
+    private static String readScalar(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case STRING:
+            case NUMBER:
+                return reader.nextString();
+            case BOOLEAN:
+                return Boolean.toString(reader.nextBoolean());
+            case NULL:
+                reader.nextNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    private class Builder {
+
+        private int rowCount;
+        private int documentCount;
+        private long[] ids = new long[INITIAL_CAPACITY];
+        private final double[][] numbers = new double[schema.size()][];
+        private final int[][] codes = new int[schema.size()][];
+        private final String[][] strings = new String[schema.size()][];
+        private final BitSet[] nulls = new BitSet[schema.size()];
+
+        private final double[] rowNumbers = new double[schema.size()];
+        private final String[] rowStrings = new String[schema.size()];
+        private final boolean[] rowNulls = new boolean[schema.size()];
+
+        Builder() {
+            for (int index = 0; index < schema.size(); index++) {
+                if (schema.getType(index) == ColumnType.NUMBER) {
+                    numbers[index] = new double[INITIAL_CAPACITY];
+                    nulls[index] = new BitSet();
+                } else if (dictionaries[index] != null) {
+                    codes[index] = new int[INITIAL_CAPACITY];
+                } else {
+                    strings[index] = new String[INITIAL_CAPACITY];
+                }
+            }
+        }
+
+        void readRow(JsonReader reader) throws IOException {
+            documentCount++;
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                return;
+            }
+
+            // values go to a row buffer first, the metadata document is only recognized by its _id
+            Arrays.fill(rowNulls, true);
+            Arrays.fill(rowStrings, null);
+            long id = -1;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if ("_id".equals(name)) {
+                    id = readId(reader);
+                    continue;
+                }
+
+                int index = schema.indexOf(name);
+                if (index < 0) {
+                    reader.skipValue();
+                } else if (schema.getType(index) == ColumnType.NUMBER) {
+                    rowNulls[index] = !readNumber(reader, index);
+                } else {
+                    rowStrings[index] = readScalar(reader);
+                    rowNulls[index] = rowStrings[index] == null;
+                }
+            }
+            reader.endObject();
+
+            if (id == 0) return;
+            append(id);
+        }
+
+        private boolean readNumber(JsonReader reader, int index) throws IOException {
+            switch (reader.peek()) {
+                case NUMBER:
+                    rowNumbers[index] = reader.nextDouble();
+                    return true;
+                case STRING:
+                    // CSV values arrive as strings until the datatype microservice converts them
+                    try {
+                        rowNumbers[index] = Double.parseDouble(reader.nextString());
+                        return true;
+                    } catch (NumberFormatException exception) {
+                        return false;
+                    }
+                case BOOLEAN:
+                    rowNumbers[index] = reader.nextBoolean() ? 1 : 0;
+                    return true;
+                case NULL:
+                    reader.nextNull();
+                    return false;
+                default:
+                    reader.skipValue();
+                    return false;
+            }
+        }
+
+        private long readId(JsonReader reader) throws IOException {
+            String value = readScalar(reader);
+            if (value == null) return -1;
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException exception) {
+                try {
+                    return (long) Double.parseDouble(value);
+                } catch (NumberFormatException notANumber) {
+                    throw new JsonParseException("unexpected document id " + value);
+                }
+            }
+        }
+
+        private void append(long id) {
+            if (rowCount == ids.length) grow();
+
+            ids[rowCount] = id;
+            for (int index = 0; index < schema.size(); index++) {
+                if (numbers[index] != null) {
+                    numbers[index][rowCount] = rowNumbers[index];
+                    if (rowNulls[index]) nulls[index].set(rowCount);
+                } else {
+                    appendString(index, rowStrings[index]);
+                }
+            }
+            rowCount++;
+        }
+
+        private void appendString(int index, String value) {
+            if (codes[index] != null) {
+                if (value == null) {
+                    codes[index][rowCount] = -1;
+                    return;
+                }
+                StringDictionary dictionary = dictionaries[index];
+                int code = dictionary.codeOf(value);
+                if (code < 0 && dictionary.accepts(value)) code = dictionary.encode(value);
+                if (code >= 0) {
+                    codes[index][rowCount] = code;
+                    return;
+                }
+                toPlain(index);
+            }
+            strings[index][rowCount] = value;
+        }
+
+        /**
+         * @summary Decodes the rows of the page read so far and drops the dictionary of the decoder, the pages
+         * decoded before keep it.
+         */
+        private void toPlain(int index) {
+            StringDictionary dictionary = dictionaries[index];
+            String[] values = new String[codes[index].length];
+            for (int row = 0; row < rowCount; row++) {
+                int code = codes[index][row];
+                values[row] = code < 0 ? null : dictionary.decode(code);
+            }
+            strings[index] = values;
+            codes[index] = null;
+            dictionaries[index] = null;
+        }
+
+        private void grow() {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            for (int index = 0; index < schema.size(); index++) {
+                if (numbers[index] != null)
+                    numbers[index] = Arrays.copyOf(numbers[index], capacity);
+                else if (codes[index] != null)
+                    codes[index] = Arrays.copyOf(codes[index], capacity);
+                else
+                    strings[index] = Arrays.copyOf(strings[index], capacity);
+            }
+        }
+
+        ColumnarPage build() {
+            List<Column> columns = new ArrayList<>(schema.size());
+            for (int index = 0; index < schema.size(); index++) {
+                String name = schema.getName(index);
+                if (numbers[index] != null)
+                    columns.add(new NumberColumn(name, Arrays.copyOf(numbers[index], rowCount), nulls[index],
+                            rowCount));
+                else if (codes[index] != null)
+                    columns.add(new StringColumn(name, Arrays.copyOf(codes[index], rowCount), dictionaries[index],
+                            rowCount));
+                else
+                    columns.add(new StringColumn(name, Arrays.copyOf(strings[index], rowCount), rowCount));
+            }
+            return new ColumnarPage(schema, Arrays.copyOf(ids, rowCount), columns, rowCount, documentCount);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package implementations.dataset.columns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import implementations.dataset.Result;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The ordered fields of a dataset and the type of each one. It is immutable.
+ */
+public final class DatasetSchema {
+
+    private final List<String> names;
+    private final List<ColumnType> types;
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    public DatasetSchema(List<String> names, List<ColumnType> types) {
+        if (names.size() != types.size())
+            throw new IllegalArgumentException("every field needs a type");
+
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        this.types = Collections.unmodifiableList(new ArrayList<>(types));
+        for (int index = 0; index < names.size(); index++) {
+            if (indexes.put(names.get(index), index) != null)
+                throw new IllegalArgumentException("duplicated field " + names.get(index));
+        }
+    }
+
+    /**
+     * @param metadata is the dataset metadata, its fields give the columns and their order
+     * @param types    maps a field to number or string, as given to the datatype microservice. Fields that are
+     *                 not in the map are strings, which is how Learning Orchestra stores CSV values.
+     */
+    public static DatasetSchema of(Result metadata, Map<String, String> types) {
+        List<String> names = metadata.getFields() != null ? metadata.getFields() : Collections.<String>emptyList();
+        List<ColumnType> columnTypes = new ArrayList<>(names.size());
+        for (String name : names)
+            columnTypes.add(ColumnType.fromDatatype(types.get(name)));
+        return new DatasetSchema(names, columnTypes);
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public String getName(int index) {
+        return names.get(index);
+    }
+
+    public ColumnType getType(int index) {
+        return types.get(index);
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @return the position of the field, or -1 if the field is not part of the schema
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("DatasetSchema[");
+        for (int index = 0; index < names.size(); index++) {
+            if (index > 0) builder.append(", ");
+            builder.append(names.get(index)).append(' ').append(types.get(index));
+        }
+        return builder.append(']').toString();
+    }
+}
@@ -0,0 +1,67 @@
+package implementations.dataset.columns;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A read only file mapped into memory in segments of 1 GiB, because a single MappedByteBuffer cannot address
+ * more than 2 GiB. The pages live in the operating system cache, outside of the Java heap.
+ */
+class MappedFile {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    MappedFile(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            segments = new MappedByteBuffer[count];
+            for (int index = 0; index < count; index++) {
+                long position = (long) index << SEGMENT_SHIFT;
+                segments[index] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(SEGMENT_SIZE, size - position));
+                segments[index].order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    // values are aligned to their size and the segment size is a multiple of 8, so a value never spans two segments
+
+    long getLong(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getLong((int) (offset & SEGMENT_MASK));
+    }
+
+    int getInt(long offset) {
+        return segments[(int) (offset >>> SEGMENT_SHIFT)].getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    void getBytes(long offset, byte[] destination) {
+        int copied = 0;
+        while (copied < destination.length) {
+            long position = offset + copied;
+            MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+            int start = (int) (position & SEGMENT_MASK);
+            int length = Math.min(destination.length - copied, segment.capacity() - start);
+            ByteBuffer view = segment.duplicate();
+            view.position(start);
+            view.get(destination, copied, length);
+            copied += length;
+        }
+    }
+}
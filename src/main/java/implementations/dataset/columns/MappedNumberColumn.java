@@ -0,0 +1,61 @@
+package implementations.dataset.columns;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A numeric column read from a column store. Values are little endian doubles, null is stored as a NaN
+ * with a payload no arithmetic produces.
+ */
+public class MappedNumberColumn {
+
+    static final long NULL_BITS = 0x7ff80000deadbeefL;
+
+    private final String name;
+    private final MappedFile file;
+    private final long size;
+
+    MappedNumberColumn(String name, MappedFile file, long size) {
+        this.name = name;
+        this.file = file;
+        this.size = size;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isNull(long row) {
+        return file.getLong(offset(row)) == NULL_BITS;
+    }
+
+    /**
+     * @return the value, or NaN when it is null
+     */
+    public double getDouble(long row) {
+        long bits = file.getLong(offset(row));
+        return bits == NULL_BITS ? Double.NaN : Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * @return the sum of the values that are not null
+     */
+    public double sum() {
+        double sum = 0;
+        for (long row = 0; row < size; row++) {
+            long bits = file.getLong(row << 3);
+            if (bits != NULL_BITS)
+                sum += Double.longBitsToDouble(bits);
+        }
+        return sum;
+    }
+
+    private long offset(long row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("row " + row + " of a column with " + size + " rows");
+        return row << 3;
+    }
+}
@@ -0,0 +1,128 @@
+package implementations.dataset.columns;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A string column read from a column store. Rows hold int codes and the dictionary is mapped too, as a
+ * table of offsets followed by the UTF-8 bytes of every distinct value, so not even the dictionary is on the heap.
+ * A column that outgrew its dictionary while it was pulled is plain instead: rows hold the end offset of their value
+ * in a mapped file of UTF-8 bytes, and there are no codes.
+ */
+public class MappedStringColumn {
+
+    private final String name;
+    private final MappedFile codes;
+    private final MappedFile dictionary;
+    private final MappedFile ends;
+    private final MappedFile values;
+    private final long size;
+    private final int dictionarySize;
+
+    MappedStringColumn(String name, MappedFile codes, MappedFile dictionary, long size) {
+        this(name, codes, dictionary, null, null, size);
+    }
+
+    private MappedStringColumn(String name, MappedFile codes, MappedFile dictionary, MappedFile ends,
+                               MappedFile values, long size) {
+        this.name = name;
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.ends = ends;
+        this.values = values;
+        this.size = size;
+        this.dictionarySize = dictionary != null ? dictionary.getInt(0) : 0;
+    }
+
+    /**
+     * @throws IOException if the values file is shorter than the end offset of the last row
+     */
+    static MappedStringColumn plain(String name, MappedFile ends, MappedFile values, long size) throws IOException {
+        MappedStringColumn column = new MappedStringColumn(name, null, null, ends, values, size);
+        long length = size == 0 ? 0 : column.end(size - 1);
+        if (values.size() < length)
+            throw new IOException("the values of " + name + " have " + values.size() + " bytes, " + length
+                    + " were expected");
+        return column;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isNull(long row) {
+        checkRow(row);
+        return codes != null ? codes.getInt(row << 2) < 0 : ends.getLong(row << 3) < 0;
+    }
+
+    /**
+     * @return whether the column holds dictionary codes, otherwise it is plain and has no codes
+     */
+    public boolean isDictionaryEncoded() {
+        return codes != null;
+    }
+
+    /**
+     * @return the dictionary code of the value, or -1 when it is null
+     * @throws IllegalStateException if the column is plain
+     */
+    public int getCode(long row) {
+        checkRow(row);
+        if (codes == null) throw new IllegalStateException("column " + name + " is not dictionary encoded");
+        return codes.getInt(row << 2);
+    }
+
+    public String getString(long row) {
+        if (codes != null) {
+            int code = getCode(row);
+            return code < 0 ? null : decode(code);
+        }
+
+        checkRow(row);
+        if (ends.getLong(row << 3) < 0) return null;
+        long start = row == 0 ? 0 : end(row - 1);
+        return read(values, start, end(row));
+    }
+
+    /**
+     * @return the number of distinct values, 0 when the column is plain
+     */
+    public int getDictionarySize() {
+        return dictionarySize;
+    }
+
+    public String decode(int code) {
+        if (code < 0 || code >= dictionarySize)
+            throw new IndexOutOfBoundsException("code " + code + " of a dictionary with " + dictionarySize + " values");
+
+        // the offsets table starts after the int count, padded to 8 bytes
+        long start = dictionary.getLong(8 + 8L * code);
+        long end = dictionary.getLong(8 + 8L * (code + 1));
+        return read(dictionary, start, end);
+    }
+
+    /**
+     * @return the end offset of the row in the values file, a null row stores it inverted
+     */
+    private long end(long row) {
+        long end = ends.getLong(row << 3);
+        return end < 0 ? ~end : end;
+    }
+
+    private static String read(MappedFile file, long start, long end) {
+        byte[] bytes = new byte[(int) (end - start)];
+        file.getBytes(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void checkRow(long row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("row " + row + " of a column with " + size + " rows");
+    }
+}
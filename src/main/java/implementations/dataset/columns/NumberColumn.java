@@ -0,0 +1,74 @@
+package implementations.dataset.columns;
+
+import java.util.BitSet;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A numeric column backed by a double array. Missing values and values that are not numbers are null.
+ */
+public class NumberColumn implements Column {
+
+    private final String name;
+    private final double[] values;
+    private final BitSet nulls;
+    private final int size;
+
+    public NumberColumn(String name, double[] values, BitSet nulls, int size) {
+        this.name = name;
+        this.values = values;
+        this.nulls = nulls;
+        this.size = size;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.NUMBER;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        checkRow(row);
+        return nulls.get(row);
+    }
+
+    /**
+     * @return the value, or NaN when it is null
+     */
+    public double getDouble(int row) {
+        checkRow(row);
+        return nulls.get(row) ? Double.NaN : values[row];
+    }
+
+    @Override
+    public Object get(int row) {
+        return isNull(row) ? null : values[row];
+    }
+
+    /**
+     * @return the sum of the values that are not null
+     */
+    public double sum() {
+        double sum = 0;
+        for (int row = 0; row < size; row++) {
+            if (!nulls.get(row))
+                sum += values[row];
+        }
+        return sum;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("row " + row + " of a column with " + size + " rows");
+    }
+}
@@ -0,0 +1,97 @@
+package implementations.dataset.columns;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A string column stored as dictionary codes, the code -1 meaning null. Once the dictionary of the decoder
+ * is full the column is plain instead, it holds the values of its page and has neither codes nor a dictionary.
+ */
+public class StringColumn implements Column {
+
+    private final String name;
+    private final int[] codes;
+    private final StringDictionary dictionary;
+    private final String[] values;
+    private final int size;
+
+    public StringColumn(String name, int[] codes, StringDictionary dictionary, int size) {
+        this.name = name;
+        this.codes = codes;
+        this.dictionary = dictionary;
+        this.values = null;
+        this.size = size;
+    }
+
+    /**
+     * @param values are the values of the page, null elements are nulls
+     */
+    public StringColumn(String name, String[] values, int size) {
+        this.name = name;
+        this.codes = null;
+        this.dictionary = null;
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.STRING;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isNull(int row) {
+        return getString(row) == null;
+    }
+
+    /**
+     * @return whether the column holds dictionary codes, otherwise it is plain and getCode cannot be used
+     */
+    public boolean isDictionaryEncoded() {
+        return dictionary != null;
+    }
+
+    /**
+     * @return the dictionary code of the value, or -1 when it is null. Comparing codes is cheaper than comparing
+     * strings, for instance when grouping by a categorical column.
+     * @throws IllegalStateException if the column is plain
+     */
+    public int getCode(int row) {
+        checkRow(row);
+        if (codes == null) throw new IllegalStateException("column " + name + " is not dictionary encoded");
+        return codes[row];
+    }
+
+    public String getString(int row) {
+        checkRow(row);
+        if (values != null) return values[row];
+        int code = codes[row];
+        return code < 0 ? null : dictionary.decode(code);
+    }
+
+    @Override
+    public Object get(int row) {
+        return getString(row);
+    }
+
+    /**
+     * @return the dictionary shared by the pages of the decoder, or null if the column is plain
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size)
+            throw new IndexOutOfBoundsException("row " + row + " of a column with " + size + " rows");
+    }
+}
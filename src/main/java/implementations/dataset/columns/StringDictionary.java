@@ -0,0 +1,86 @@
+package implementations.dataset.columns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class gives every distinct string of a column a small integer code. Categorical columns repeat a
+ * few values many times, so a row stores a four byte code and each distinct value is kept only once. A dictionary
+ * is bounded by a number of values and of characters, because a column whose values are unique per row, such as a
+ * name, would otherwise keep the whole column alive. It is not thread safe, a dictionary belongs to the decoder
+ * filling it.
+ */
+public class StringDictionary {
+
+    public static final int DEFAULT_MAX_VALUES = 1 << 16;
+    public static final long DEFAULT_MAX_CHARS = 4L << 20;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    private final int maxValues;
+    private final long maxChars;
+    private long chars;
+
+    public StringDictionary() {
+        this(DEFAULT_MAX_VALUES, DEFAULT_MAX_CHARS);
+    }
+
+    /**
+     * @param maxValues is the number of distinct values the dictionary accepts
+     * @param maxChars  is the total length of the distinct values the dictionary accepts
+     */
+    public StringDictionary(int maxValues, long maxChars) {
+        this.maxValues = maxValues;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * @return the code of the value, a new code is assigned the first time a value is seen
+     * @throws IllegalStateException if the value is new and the dictionary is full
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code != null) return code;
+        if (!accepts(value))
+            throw new IllegalStateException("the dictionary is full, " + values.size() + " values");
+
+        code = values.size();
+        values.add(value);
+        codes.put(value, code);
+        chars += value.length();
+        return code;
+    }
+
+    /**
+     * @return whether encode gives the value a code, either an existing one or a new one within the bounds
+     */
+    public boolean accepts(String value) {
+        if (codes.containsKey(value)) return true;
+        return values.size() < maxValues && chars + value.length() <= maxChars;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    /**
+     * @return the code of the value, or -1 if the value was never encoded
+     */
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public List<String> values() {
+        return Collections.unmodifiableList(values);
+    }
+}
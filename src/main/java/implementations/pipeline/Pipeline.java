@@ -0,0 +1,167 @@
+package implementations.pipeline;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import implementations.util.ClientExecutors;
+import implementations.util.ResponseParser;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class runs a chain of Learning Orchestra operations as a graph of stages. A stage starts as soon
+ * as all of its dependencies succeeded, so independent branches run in parallel and the elapsed time is set by
+ * the longest chain of dependencies instead of the sum of the stages. A stage succeeds when its operation
+ * completes with metadata marked as finished, the future methods of the interfaces complete that way. Dependencies
+ * must be added before the stages depending on them, this way a pipeline cannot have cycles.
+ *
+ * <pre>
+ * PipelineReport report = new Pipeline()
+ *         .stage("insert", () -&gt; dataset.insertDatasetFuture(url, "titanic"))
+ *         .stage("types", () -&gt; dataType.updateDatasetTypeFuture("titanic", types), "insert")
+ *         .stage("projection", () -&gt; projection.removeDatasetAttributesFuture(
+ *                 "titanic_projection", "titanic", fields, true), "types")
+ *         .blockingStage("histogram", () -&gt; {
+ *             histogram.runHistogramAsync("titanic_projection", "titanic_histogram", "Age");
+ *             return histogram.await("titanic_histogram");
+ *         }, "projection")
+ *         .run();
+ * </pre>
+ */
+public class Pipeline {
+
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+
+    /**
+     * @param name         identifies the stage in the report and in the dependencies of later stages
+     * @param operation    starts the operation, for instance a future method of DatasetInterface
+     * @param dependencies are stages added earlier that must succeed before this one starts
+     */
+    public Pipeline stage(String name, Supplier<CompletableFuture<JsonObject>> operation, String... dependencies) {
+        if (stages.containsKey(name))
+            throw new IllegalArgumentException("the stage " + name + " already exists");
+        for (String dependency : dependencies) {
+            if (!stages.containsKey(dependency))
+                throw new IllegalArgumentException("the stage " + name + " depends on " + dependency
+                        + ", which must be added before it");
+        }
+
+        stages.put(name, new Stage(name, operation, Arrays.asList(dependencies)));
+        return this;
+    }
+
+    /**
+     * @param operation is a blocking call, for instance a sync method or an async method followed by await. It
+     *                  runs on the shared IO pool.
+     */
+    public Pipeline blockingStage(String name, Supplier<JsonObject> operation, String... dependencies) {
+        return stage(name, () -> CompletableFuture.supplyAsync(operation, ClientExecutors.io()), dependencies);
+    }
+
+    public PipelineReport run() {
+        return runFuture().join();
+    }
+
+    /**
+     * @return a future completed with the report once every stage succeeded, failed or was skipped. It never
+     * completes exceptionally.
+     */
+    public CompletableFuture<PipelineReport> runFuture() {
+        long startedAt = System.nanoTime();
+        Map<String, CompletableFuture<StageReport>> reports = new LinkedHashMap<>();
+
+        for (Stage stage : stages.values()) {
+            List<CompletableFuture<StageReport>> dependencies = new ArrayList<>();
+            for (String dependency : stage.dependencies)
+                dependencies.add(reports.get(dependency));
+
+            CompletableFuture<StageReport> report = CompletableFuture
+                    .allOf(dependencies.toArray(new CompletableFuture<?>[0]))
+                    .thenComposeAsync(done -> run(stage, dependencies, startedAt), ClientExecutors.io());
+            reports.put(stage.name, report);
+        }
+
+        return CompletableFuture.allOf(reports.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    List<StageReport> stageReports = new ArrayList<>();
+                    for (CompletableFuture<StageReport> report : reports.values())
+                        stageReports.add(report.join());
+                    return new PipelineReport(stageReports, System.nanoTime() - startedAt);
+                });
+    }
+
+    private static CompletableFuture<StageReport> run(Stage stage, List<CompletableFuture<StageReport>> dependencies,
+                                                     long startedAt) {
+        long start = System.nanoTime() - startedAt;
+        for (CompletableFuture<StageReport> dependency : dependencies) {
+            StageReport report = dependency.join();
+            if (report.getStatus() != StageStatus.SUCCEEDED)
+                return CompletableFuture.completedFuture(new StageReport(stage.name, stage.dependencies,
+                        StageStatus.SKIPPED, start, start, null, "the stage " + report.getName() + " did not succeed"));
+        }
+
+        CompletableFuture<JsonObject> operation;
+        try {
+            operation = stage.operation.get();
+        } catch (RuntimeException exception) {
+            operation = new CompletableFuture<>();
+            operation.completeExceptionally(exception);
+        }
+
+        return operation.handle((response, error) -> {
+            long end = System.nanoTime() - startedAt;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                return new StageReport(stage.name, stage.dependencies, StageStatus.FAILED, start, end, null,
+                        String.valueOf(cause));
+            }
+
+            String failure = failure(response);
+            return new StageReport(stage.name, stage.dependencies,
+                    failure == null ? StageStatus.SUCCEEDED : StageStatus.FAILED, start, end, response, failure);
+        });
+    }
+
+    /**
+     * @return why the response is not finished metadata, or null if it is
+     */
+    private static String failure(JsonObject response) {
+        if (response == null) return "no response";
+
+        JsonElement result = response.get(ResponseParser.RESULT);
+        if (result == null || !result.isJsonArray())
+            return "Learning Orchestra answered " + result;
+
+        JsonArray rows = result.getAsJsonArray();
+        if (rows.size() > 0 && rows.get(0).isJsonObject()) {
+            JsonElement finished = rows.get(0).getAsJsonObject().get("finished");
+            if (finished != null && !"true".equals(finished.getAsString()))
+                return "the dataset is not finished";
+        }
+        return null;
+    }
+
+    private static class Stage {
+
+        private final String name;
+        private final Supplier<CompletableFuture<JsonObject>> operation;
+        private final List<String> dependencies;
+
+        Stage(String name, Supplier<CompletableFuture<JsonObject>> operation, List<String> dependencies) {
+            this.name = name;
+            this.operation = operation;
+            this.dependencies = dependencies;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package implementations.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The outcome of a pipeline run. The critical path is the chain of stages that set the elapsed time: it
+ * starts at the stage that ended last and goes back through the dependency that ended last of each stage.
+ * Shortening a stage outside of it does not make the pipeline faster.
+ */
+public class PipelineReport {
+
+    private final Map<String, StageReport> stages = new LinkedHashMap<>();
+    private final long elapsedNanos;
+    private final List<String> criticalPath;
+
+    public PipelineReport(List<StageReport> stageReports, long elapsedNanos) {
+        for (StageReport stage : stageReports)
+            stages.put(stage.getName(), stage);
+        this.elapsedNanos = elapsedNanos;
+        this.criticalPath = Collections.unmodifiableList(criticalPath());
+    }
+
+    private List<String> criticalPath() {
+        StageReport last = latest(stages.values());
+        List<String> path = new ArrayList<>();
+        while (last != null) {
+            path.add(last.getName());
+            List<StageReport> dependencies = new ArrayList<>();
+            for (String dependency : last.getDependencies())
+                dependencies.add(stages.get(dependency));
+            last = latest(dependencies);
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    private static StageReport latest(Iterable<StageReport> candidates) {
+        StageReport latest = null;
+        for (StageReport candidate : candidates) {
+            if (latest == null || candidate.getEndNanos() > latest.getEndNanos())
+                latest = candidate;
+        }
+        return latest;
+    }
+
+    public List<StageReport> getStages() {
+        return Collections.unmodifiableList(new ArrayList<>(stages.values()));
+    }
+
+    public StageReport getStage(String name) {
+        return stages.get(name);
+    }
+
+    /**
+     * @return whether every stage succeeded
+     */
+    public boolean succeeded() {
+        for (StageReport stage : stages.values()) {
+            if (stage.getStatus() != StageStatus.SUCCEEDED) return false;
+        }
+        return true;
+    }
+
+    public List<String> getCriticalPath() {
+        return criticalPath;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return the time the stages would take one after the other, as a blocking sequence of calls
+     */
+    public long getSequentialMillis() {
+        long sequential = 0;
+        for (StageReport stage : stages.values())
+            sequential += stage.getDurationNanos();
+        return TimeUnit.NANOSECONDS.toMillis(sequential);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(String.format("pipeline %d ms, sequential %d ms, critical path %s%n", getElapsedMillis(),
+                getSequentialMillis(), String.join(" -> ", criticalPath)));
+        for (StageReport stage : stages.values())
+            builder.append("  ").append(stage).append(System.lineSeparator());
+        return builder.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package implementations.pipeline;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.JsonObject;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The timing and outcome of a pipeline stage. Times are measured from the start of the pipeline.
+ */
+public class StageReport {
+
+    private final String name;
+    private final List<String> dependencies;
+    private final StageStatus status;
+    private final long startNanos;
+    private final long endNanos;
+    private final JsonObject response;
+    private final String error;
+
+    public StageReport(String name, List<String> dependencies, StageStatus status, long startNanos, long endNanos,
+                       JsonObject response, String error) {
+        this.name = name;
+        this.dependencies = Collections.unmodifiableList(dependencies);
+        this.status = status;
+        this.startNanos = startNanos;
+        this.endNanos = endNanos;
+        this.response = response;
+        this.error = error;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getDependencies() {
+        return dependencies;
+    }
+
+    public StageStatus getStatus() {
+        return status;
+    }
+
+    public long getStartMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(startNanos);
+    }
+
+    public long getEndMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(endNanos);
+    }
+
+    public long getDurationMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(endNanos - startNanos);
+    }
+
+    long getEndNanos() {
+        return endNanos;
+    }
+
+    long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    /**
+     * @return the last response of the stage, usually the metadata of its dataset, or null if it failed
+     * before receiving one or was skipped
+     */
+    public JsonObject getResponse() {
+        return response;
+    }
+
+    /**
+     * @return why the stage failed or was skipped, or null if it succeeded
+     */
+    public String getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s [%d ms, %d ms] %d ms%s", name, status, getStartMillis(), getEndMillis(),
+                getDurationMillis(), error == null ? "" : ": " + error);
+    }
+}
@@ -0,0 +1,24 @@
+package implementations.pipeline;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The outcome of a pipeline stage.
+ */
+public enum StageStatus {
+
+    /**
+     * The stage finished and its dataset is marked as finished by Learning Orchestra.
+     */
+    SUCCEEDED,
+
+    /**
+     * The request failed, or Learning Orchestra answered with a message instead of finished metadata.
+     */
+    FAILED,
+
+    /**
+     * The stage did not run because one of its dependencies did not succeed.
+     */
+    SKIPPED
+}
@@ -1,52 +1,158 @@
 package implementations.transform.datatype;
 
-import java.io.FileInputStream;
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 
+import implementations.util.BatchAwaiter;
+import implementations.util.ClientConfig;
+import implementations.util.JobPoller;
+import implementations.util.MetadataCache;
 import implementations.util.NetworkCommunication;
+import implementations.util.ReloadableClientConfig;
 import interfaces.transform.datatype.DataTypeInterface;
 
 public class DataTypeImplementation implements DataTypeInterface {
 
-    @Override
-    public JsonObject updateDatasetTypeAsync(String datasetName, Map<String, String> types) {
-        JsonObject request = new JsonObject();
-        request.addProperty("datasetName", datasetName);
-        JsonArray array = new JsonArray();
-        Gson gson = new Gson();
+    private final Supplier<ClientConfig> config;
 
-        for (Entry<String, String> e : types.entrySet())
-            array.add(gson.toJsonTree(e));
+    public DataTypeImplementation() {
+        this(ReloadableClientConfig.shared());
+    }
+
+    public DataTypeImplementation(Supplier<ClientConfig> config) {
+        this.config = config;
+    }
 
-        request.add("types", array);
+    @Override
+    public JsonObject updateDatasetTypeAsync(String datasetName, Map<String, String> types) {
+        TypeChangeRequest request = new TypeChangeRequest(datasetName, types);
 
-        return NetworkCommunication.jsonRequest(
-                "PATCH", "microservice_transform_datatype",
+        JsonObject jsonObj = NetworkCommunication.jsonRequest(
+                config.get(), "PATCH", "microservice_transform_datatype",
                 true, request);
+        // dropped once the server answered, a lookup made meanwhile may have cached the old metadata
+        MetadataCache.shared().invalidate(datasetName);
+        return jsonObj;
     }
 
 
     @Override
-    public JsonObject await(String datasetName) {
+    public CompletableFuture<JsonObject> updateDatasetTypeFuture(String datasetName, Map<String, String> types) {
+        ClientConfig clientConfig = config.get();
+
+        TypeChangeRequest request = new TypeChangeRequest(datasetName, types);
+
+        return NetworkCommunication.jsonRequestAsync(
+                clientConfig, "PATCH", "microservice_transform_datatype", true, request)
+                .whenComplete((jsonObj, error) -> MetadataCache.shared().invalidate(datasetName))
+                .thenCompose(jsonObj -> NetworkCommunication.awaitIfPending(
+                        clientConfig, "microservice_transform_datatype", datasetName, jsonObj));
+    }
+
+    @Override
+    public Map<String, JsonObject> updateDatasetTypesSync(Map<String, Map<String, String>> types,
+                                                          int maxInFlight) {
         try {
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
+            return updateDatasetTypesFuture(types, maxInFlight).get();
 
-            String address = properties.getProperty("address");
-            String microservice = properties.getProperty("microservice_transform_datatype");
-            String searchMetadata = properties.getProperty("search_metadata");
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
 
-            int sleep = Integer.parseInt(properties.getProperty("wait_time"));
+    @Override
+    public CompletableFuture<Map<String, JsonObject>> updateDatasetTypesFuture(
+            Map<String, Map<String, String>> types, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be positive");
+
+        ClientConfig clientConfig = config.get();
+        Map<String, CompletableFuture<JsonObject>> outcomes = new LinkedHashMap<>();
+        Queue<Map.Entry<String, Map<String, String>>> queue = new ConcurrentLinkedQueue<>();
+        for (Map.Entry<String, Map<String, String>> entry : types.entrySet()) {
+            outcomes.put(entry.getKey(), new CompletableFuture<>());
+            queue.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+        }
+
+        // every answered request sends the next one, this way at most maxInFlight requests are on the wire
+        for (int index = 0; index < Math.min(maxInFlight, outcomes.size()); index++)
+            submitNext(clientConfig, queue, outcomes);
+
+        return CompletableFuture.allOf(outcomes.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(done -> {
+                    Map<String, JsonObject> summary = new LinkedHashMap<>();
+                    for (Map.Entry<String, CompletableFuture<JsonObject>> outcome : outcomes.entrySet())
+                        summary.put(outcome.getKey(), outcome.getValue().join());
+                    return summary;
+                });
+    }
+
+    private void submitNext(ClientConfig clientConfig, Queue<Map.Entry<String, Map<String, String>>> queue,
+                            Map<String, CompletableFuture<JsonObject>> outcomes) {
+        Map.Entry<String, Map<String, String>> next = queue.poll();
+        if (next == null) return;
+
+        String datasetName = next.getKey();
+        CompletableFuture<JsonObject> outcome = outcomes.get(datasetName);
+
+        TypeChangeRequest request = new TypeChangeRequest(datasetName, next.getValue());
+
+        NetworkCommunication.jsonRequestAsync(
+                clientConfig, "PATCH", "microservice_transform_datatype", true, request)
+                .whenComplete((jsonObj, error) -> {
+                    MetadataCache.shared().invalidate(datasetName);
+                    submitNext(clientConfig, queue, outcomes);
+
+                    if (error != null) {
+                        outcome.complete(failure(error));
+                    } else if (NetworkCommunication.isPending(clientConfig, jsonObj)) {
+                        // pending datasets join the batch poll of the microservice instead of polling one by one
+                        BatchAwaiter.shared().awaitAll(clientConfig, "microservice_transform_datatype",
+                                Collections.singleton(datasetName)).get(datasetName)
+                                .whenComplete((metadata, awaitError) ->
+                                        outcome.complete(awaitError != null ? failure(awaitError) : metadata));
+                    } else {
+                        outcome.complete(jsonObj);
+                    }
+                });
+    }
+
+    private static JsonObject failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        JsonObject jsonObj = new JsonObject();
+        jsonObj.addProperty("result", String.valueOf(cause.getMessage()));
+        return jsonObj;
+    }
 
+    @Override
+    public CompletableFuture<JsonObject> awaitFuture(String datasetName) {
+        return JobPoller.shared().awaitFinished(config.get(), "microservice_transform_datatype", datasetName);
+    }
+
+    @Override
+    public Map<String, CompletableFuture<JsonObject>> awaitAll(Collection<String> datasetNames) {
+        return BatchAwaiter.shared().awaitAll(config.get(), "microservice_transform_datatype", datasetNames);
+    }
+
+    @Override
+    public JsonObject await(String datasetName) {
+        try {
             return NetworkCommunication.confirmAsync(
-                    address, microservice, "microservice_transform_datatype",
-                    datasetName, searchMetadata, null, sleep);
+                    config.get(), "microservice_transform_datatype", datasetName);
 
         } catch (Exception exception) {
             exception.printStackTrace();
@@ -83,26 +189,18 @@ public class DataTypeImplementation implements DataTypeInterface {
     @Override
     public JsonObject updateDatasetTypeSync(String datasetName, Map<String, String> types) {
         try {
+            ClientConfig clientConfig = config.get();
 
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
-
-            JsonObject request = new JsonObject();
-            request.addProperty("datasetName", datasetName);
-            JsonArray array = new JsonArray();
-            Gson gson = new Gson();
-            for (Entry<String, String> e : types.entrySet())
-                array.add(gson.toJsonTree(e));
-
-            request.add("types", array);
+            TypeChangeRequest request = new TypeChangeRequest(datasetName, types);
 
             JsonObject jsonObj = NetworkCommunication.jsonRequest(
-                    "PATCH", "microservice_transform_datatype",
+                    clientConfig, "PATCH", "microservice_transform_datatype",
                     true, request);
+            MetadataCache.shared().invalidate(datasetName);
 
             if (jsonObj == null) throw new AssertionError();
             String result = jsonObj.get("result").getAsString();
-            String search = properties.getProperty("search_content");
+            String search = clientConfig.getSearchContent();
 
             if (result.endsWith(search)) {
                 JsonObject jsonObjectAux = await(datasetName);
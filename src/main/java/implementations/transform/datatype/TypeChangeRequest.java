@@ -0,0 +1,38 @@
+package implementations.transform.datatype;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import implementations.util.JsonRequest;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The body of a type change. The types are sent as an array of {"key": field, "value": type} objects, in
+ * the order of the map.
+ */
+public final class TypeChangeRequest implements JsonRequest {
+
+    private final String datasetName;
+    private final Map<String, String> types;
+
+    public TypeChangeRequest(String datasetName, Map<String, String> types) {
+        this.datasetName = datasetName;
+        this.types = Collections.unmodifiableMap(new LinkedHashMap<>(types));
+    }
+
+    @Override
+    public String getDatasetName() {
+        return datasetName;
+    }
+
+    public Map<String, String> getTypes() {
+        return types;
+    }
+
+    @Override
+    public int getValueCount() {
+        return 1 + 2 * types.size();
+    }
+}
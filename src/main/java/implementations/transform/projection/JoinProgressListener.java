@@ -0,0 +1,23 @@
+package implementations.transform.projection;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Receives the progress of a multi-way join. It is called from the threads completing the joins, so it
+ * must be thread safe and return quickly.
+ */
+public interface JoinProgressListener {
+
+    JoinProgressListener NONE = (level, left, right, result, completed, total) -> {
+    };
+
+    /**
+     * @param level     is the depth of the join in the tree, the joins of the input datasets are level 1
+     * @param left      is the first joined dataset
+     * @param right     is the second joined dataset
+     * @param result    is the dataset created by the join
+     * @param completed is the number of joins finished so far, this one included
+     * @param total     is the number of joins of the whole tree, one less than the number of inputs
+     */
+    void joined(int level, String left, String right, String result, int completed, int total);
+}
@@ -1,115 +1,265 @@
 package implementations.transform.projection;
 
-import java.io.FileInputStream;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import implementations.util.BatchAwaiter;
+import implementations.util.ClientConfig;
+import implementations.util.JobPoller;
+import implementations.util.MetadataCache;
 import implementations.util.NetworkCommunication;
+import implementations.util.ReloadableClientConfig;
+import implementations.util.ResponseParser;
 import interfaces.transform.projection.ProjectionInterface;
 
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Every projection operation is a request object sent by one non-blocking core: the Async methods wait
+ * for the response only, the Future methods also await the job without blocking a thread and the Sync methods
+ * block on the Future methods. Operations other than the attribute removal name themselves in the operation
+ * property of the request, which the projection microservice of Learning Orchestra does not understand, so they are
+ * only sent when projection_operations is true in the configuration. Otherwise their futures fail with an
+ * UnsupportedOperationException and the Sync and Async methods return null. When a new dataset is created, the
+ * dataset awaited is the one named in the URL returned by Learning Orchestra.
+ */
 public class ProjectionImplementation implements ProjectionInterface {
 
+    public static final int DEFAULT_JOIN_CONCURRENCY = 8;
+
+    private static final String MICROSERVICE = "microservice_transform_projection";
+    private static final String OPERATION = "operation";
+
+    private final Supplier<ClientConfig> config;
+
+    public ProjectionImplementation() {
+        this(ReloadableClientConfig.shared());
+    }
+
+    public ProjectionImplementation(Supplier<ClientConfig> config) {
+        this.config = config;
+    }
+
+    @Override
+    public JsonObject removeDatasetAttributesSync(String datasetName, String datasetOldName,
+                                                  Enumeration<String> attributes, boolean newDataset) {
+        return join(removeDatasetAttributesFuture(datasetName, datasetOldName, attributes, newDataset));
+    }
+
+    @Override
+    public JsonObject removeDatasetAttributesAsync(String datasetName, String datasetOldName,
+                                                   Enumeration<String> attributes, boolean newDataset) {
+        return join(submit(config.get(), method(newDataset),
+                removeAttributesRequest(datasetName, datasetOldName, attributes), datasetOldName));
+    }
+
+    @Override
+    public CompletableFuture<JsonObject> removeDatasetAttributesFuture(String datasetName, String datasetOldName,
+                                                                       Enumeration<String> attributes,
+                                                                       boolean newDataset) {
+        return submitAndAwait(config.get(), method(newDataset),
+                removeAttributesRequest(datasetName, datasetOldName, attributes), datasetOldName);
+    }
+
+    @Override
+    public JsonObject insertDatasetAttributeSync(String datasetName, String attribute, String existingAttribute,
+                                                 Map<String, String> values, boolean newDataset) {
+        return join(insertDatasetAttributeFuture(datasetName, attribute, existingAttribute, values, newDataset));
+    }
+
+    @Override
+    public JsonObject insertDatasetAttributeAsync(String datasetName, String attribute, String existingAttribute,
+                                                  Map<String, String> values, boolean newDataset) {
+        return join(submit(config.get(), method(newDataset),
+                insertAttributeRequest(datasetName, attribute, existingAttribute, values)));
+    }
+
     @Override
-    public JsonObject insertDatasetAttributeSync(
-            String datasetName, String attribute, String existingAttribute,
-            Map<String, String> values, boolean newDataset) {
-        // TODO Auto-generated method stub
-        return null;
+    public CompletableFuture<JsonObject> insertDatasetAttributeFuture(String datasetName, String attribute,
+                                                                      String existingAttribute,
+                                                                      Map<String, String> values,
+                                                                      boolean newDataset) {
+        return submitAndAwait(config.get(), method(newDataset),
+                insertAttributeRequest(datasetName, attribute, existingAttribute, values));
     }
 
     @Override
     public JsonObject reduceDatasetSync(String datasetName, int sizeReduction, boolean newDataset) {
-        // TODO Auto-generated method stub
-        return null;
+        return join(reduceDatasetFuture(datasetName, sizeReduction, newDataset));
     }
 
     @Override
-    public JsonObject enlargeDatasetSync(String datasetName, int sizeEnlarge, boolean newDataset) {
-        // TODO Auto-generated method stub
-        return null;
+    public JsonObject reduceDatasetAsync(String datasetName, int sizeReduction, boolean newDataset) {
+        return join(submit(config.get(), method(newDataset), resizeRequest(datasetName, "reduce",
+                "sizeReduction", sizeReduction)));
     }
 
     @Override
-    public JsonObject joinDatasetsSync(Enumeration<String> datasetNames, String datasetName,
-                                       boolean removeExistingDatasets) {
-        // TODO Auto-generated method stub
-        return null;
+    public CompletableFuture<JsonObject> reduceDatasetFuture(String datasetName, int sizeReduction,
+                                                             boolean newDataset) {
+        return submitAndAwait(config.get(), method(newDataset), resizeRequest(datasetName, "reduce",
+                "sizeReduction", sizeReduction));
     }
 
     @Override
-    public JsonObject joinDatasetsSync(String datasetNameOne, String datasetNameTwo,
-                                       Map<String, String> attributesAssociations, String datasetName,
-                                       boolean removeExistingDatasets) {
-        // TODO Auto-generated method stub
-        return null;
+    public JsonObject enlargeDatasetSync(String datasetName, int sizeEnlarge, boolean newDataset) {
+        return join(enlargeDatasetFuture(datasetName, sizeEnlarge, newDataset));
     }
 
+    @Override
+    public JsonObject enlargeDatasetAsync(String datasetName, int sizeEnlarge, boolean newDataset) {
+        return join(submit(config.get(), method(newDataset), resizeRequest(datasetName, "enlarge",
+                "sizeEnlarge", sizeEnlarge)));
+    }
 
     @Override
-    public JsonObject await(String datasetURL) {
-        try {
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
+    public CompletableFuture<JsonObject> enlargeDatasetFuture(String datasetName, int sizeEnlarge,
+                                                              boolean newDataset) {
+        return submitAndAwait(config.get(), method(newDataset), resizeRequest(datasetName, "enlarge",
+                "sizeEnlarge", sizeEnlarge));
+    }
 
-            String address = properties.getProperty("address");
-            String microservice = properties.getProperty("microservice_transform_projection");
-            String searchMetadata = properties.getProperty("search_metadata");
+    @Override
+    public JsonObject joinDatasetsSync(Enumeration<String> datasetNames, String datasetName,
+                                       boolean removeExistingDatasets) {
+        return join(joinDatasetsFuture(datasetNames, datasetName, removeExistingDatasets));
+    }
 
-            int sleep = Integer.parseInt(properties.getProperty("wait_time"));
+    @Override
+    public JsonObject joinDatasetsAsync(Enumeration<String> datasetNames, String datasetName,
+                                        boolean removeExistingDatasets) {
+        List<String> inputs = list(datasetNames);
+        ClientConfig clientConfig = config.get();
+        if (!clientConfig.isProjectionOperationsEnabled()) return join(unsupported("join"));
+        return join(awaitInputs(clientConfig, inputs).thenCompose(done -> submit(clientConfig, "POST",
+                joinRequest(inputs, null, datasetName, removeExistingDatasets), inputs)));
+    }
 
-            return NetworkCommunication.confirmAsync(
-                    address, microservice, "microservice_transform_projection",
-                    datasetURL, searchMetadata, null, sleep);
+    @Override
+    public CompletableFuture<JsonObject> joinDatasetsFuture(Enumeration<String> datasetNames, String datasetName,
+                                                            boolean removeExistingDatasets) {
+        return joinDatasetsFuture(list(datasetNames), datasetName, removeExistingDatasets,
+                DEFAULT_JOIN_CONCURRENCY, JoinProgressListener.NONE);
+    }
 
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+    /**
+     * @param datasetNames           are the datasets to join, for instance daily shards, in the order of their rows
+     * @param datasetName            is the name of the final dataset
+     * @param removeExistingDatasets removes the input datasets. The intermediate datasets are always removed.
+     * @param maxConcurrency         is the maximum number of joins running at the same time
+     * @param listener               is called after every pairwise join
+     * @return a future completed with the metadata of the final dataset, or with the message of the first join
+     * that failed. It completes exceptionally if a request fails.
+     * @summary Joins the datasets as a balanced tree of pairwise joins: neighbours are joined, then the results
+     * are joined, and so on. A join starts as soon as both of its inputs are finished, so n datasets take about
+     * log2(n) rounds of joins instead of the n - 1 rounds of joining them one after the other.
+     */
+    public CompletableFuture<JsonObject> joinDatasetsFuture(List<String> datasetNames, String datasetName,
+                                                            boolean removeExistingDatasets, int maxConcurrency,
+                                                            JoinProgressListener listener) {
+        if (datasetNames.size() < 2) throw new IllegalArgumentException("a join needs at least two datasets");
+        if (maxConcurrency < 1) throw new IllegalArgumentException("maxConcurrency must be positive");
+
+        ClientConfig clientConfig = config.get();
+        if (!clientConfig.isProjectionOperationsEnabled()) return unsupported("join");
+        JoinTree tree = new JoinTree(clientConfig, datasetName, removeExistingDatasets, maxConcurrency, listener,
+                datasetNames.size() - 1);
+        return awaitInputs(clientConfig, datasetNames)
+                .thenCompose(done -> tree.join(datasetNames))
+                .thenApply(node -> node.response);
     }
 
     @Override
-    public JsonObject deleteProjectionSync(String datasetName) {
-        return null;
+    public JsonObject joinDatasetsSync(String datasetNameOne, String datasetNameTwo,
+                                       Map<String, String> attributesAssociations, String datasetName,
+                                       boolean removeExistingDatasets) {
+        return join(joinDatasetsFuture(datasetNameOne, datasetNameTwo, attributesAssociations, datasetName,
+                removeExistingDatasets));
     }
 
     @Override
-    public JsonObject deleteProjectionAsync(String datasetName) {
-        return null;
+    public JsonObject joinDatasetsAsync(String datasetNameOne, String datasetNameTwo,
+                                        Map<String, String> attributesAssociations, String datasetName,
+                                        boolean removeExistingDatasets) {
+        List<String> inputs = list(datasetNameOne, datasetNameTwo);
+        ClientConfig clientConfig = config.get();
+        if (!clientConfig.isProjectionOperationsEnabled()) return join(unsupported("join"));
+        return join(awaitInputs(clientConfig, inputs).thenCompose(done -> submit(clientConfig, "POST",
+                joinRequest(inputs, attributesAssociations, datasetName, removeExistingDatasets), inputs)));
     }
 
     @Override
-    public JsonObject searchAllProjections() {
-        return null;
+    public CompletableFuture<JsonObject> joinDatasetsFuture(String datasetNameOne, String datasetNameTwo,
+                                                            Map<String, String> attributesAssociations,
+                                                            String datasetName, boolean removeExistingDatasets) {
+        List<String> inputs = list(datasetNameOne, datasetNameTwo);
+        ClientConfig clientConfig = config.get();
+        if (!clientConfig.isProjectionOperationsEnabled()) return unsupported("join");
+        return awaitInputs(clientConfig, inputs).thenCompose(done -> submitAndAwait(clientConfig, "POST",
+                joinRequest(inputs, attributesAssociations, datasetName, removeExistingDatasets), inputs));
     }
 
     @Override
-    public JsonObject searchProjectionContent(String datasetName, int pageSize, int currentPage) {
-        return null;
+    public JsonObject updateDatasetValuesSync(String datasetName, String attribute,
+                                              Map<String, String> oldToNewValues) {
+        return join(updateDatasetValuesFuture(datasetName, attribute, oldToNewValues));
     }
 
     @Override
-    public JsonObject searchProjectionContent(String datasetName) {
-        return null;
+    public JsonObject updateDatasetValuesAsync(String datasetName, String attribute,
+                                               Map<String, String> oldToNewValues) {
+        return join(submit(config.get(), "PATCH", updateValuesRequest(datasetName, attribute, oldToNewValues)));
     }
 
     @Override
-    public JsonObject removeDatasetAttributesSync(String datasetName, String datasetOldName,
-                                                  Enumeration<String> attributes,
-                                                  boolean newDataset) {
+    public CompletableFuture<JsonObject> updateDatasetValuesFuture(String datasetName, String attribute,
+                                                                   Map<String, String> oldToNewValues) {
+        return submitAndAwait(config.get(), "PATCH", updateValuesRequest(datasetName, attribute, oldToNewValues));
+    }
+
+    @Override
+    public JsonObject await(String datasetURL) {
         try {
-            Properties properties = new Properties();
+            return NetworkCommunication.confirmAsync(config.get(), MICROSERVICE, datasetURL);
 
-            JsonObject jsonObj = removeDatasetAttributesAsync(datasetName,datasetOldName,attributes,newDataset);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-            String result = jsonObj.get("result").getAsString();
+    @Override
+    public CompletableFuture<JsonObject> awaitFuture(String datasetName) {
+        return JobPoller.shared().awaitFinished(config.get(), MICROSERVICE, datasetName);
+    }
 
-            String search = properties.getProperty("search_content");
+    @Override
+    public Map<String, CompletableFuture<JsonObject>> awaitAll(Collection<String> datasetNames) {
+        return BatchAwaiter.shared().awaitAll(config.get(), MICROSERVICE, datasetNames);
+    }
 
-            if (result.endsWith(search)) {
+    @Override
+    public JsonObject deleteProjectionSync(String datasetName) {
+        try {
+            ClientConfig clientConfig = config.get();
+            JsonObject jsonObj = deleteProjectionAsync(datasetName);
+            if (jsonObj == null) throw new AssertionError();
+
+            if (NetworkCommunication.isPending(clientConfig, jsonObj)) {
                 JsonObject jsonObjectAux = await(datasetName);
                 if (jsonObjectAux != null)
                     jsonObj = jsonObjectAux;
@@ -121,45 +271,57 @@ public class ProjectionImplementation implements ProjectionInterface {
             exception.printStackTrace();
             return null;
         }
-
     }
 
     @Override
-    public JsonObject updateDatasetValuesSync(String datasetName, String attribute,
-                                              Map<String, String> oldToNewValues) {
-        // TODO Auto-generated method stub
-        return null;
+    public JsonObject deleteProjectionAsync(String datasetName) {
+        try {
+            JsonObject jsonObj = NetworkCommunication.confirm(config.get(), datasetName, "DELETE", MICROSERVICE);
+            MetadataCache.shared().invalidate(datasetName);
+            return jsonObj;
+
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
     }
 
     @Override
-    public JsonObject removeDatasetAttributesAsync(String datasetName, String datasetOldName,
-                                                   Enumeration<String> attributes, boolean newDataset) {
+    public JsonObject searchAllProjections() {
         try {
+            JsonArray rows = new JsonArray();
+            JsonObject jsonObj = NetworkCommunication.confirm(config.get(), "", "GET", MICROSERVICE, rows::add);
+            return NetworkCommunication.withRows(jsonObj, rows);
 
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
-
-            JsonObject request = new JsonObject();
-            request.addProperty("datasetName", datasetName);
-            request.addProperty("datasetOldName", datasetOldName);
-            JsonArray array = new JsonArray();
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
 
-            while (attributes.hasMoreElements())
-                array.add(attributes.nextElement());
+    @Override
+    public JsonObject searchProjectionContent(String datasetName, int pageSize, int currentPage) {
+        try {
+            return NetworkCommunication.confirm(config.get(),
+                    datasetName + "?query={}&limit=" + pageSize + "&skip=" + (long) currentPage * pageSize,
+                    "GET", MICROSERVICE);
 
-            request.add("names", array);
-            JsonObject jsonObj;
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
 
-            if (newDataset)
-                jsonObj = NetworkCommunication.jsonRequest(
-                        "POST", "microservice_transform_projection",
-                        true, request);
-            else
-                jsonObj = NetworkCommunication.jsonRequest(
-                        "PATCH", "microservice_transform_projection",
-                        true, request);
+    @Override
+    public JsonObject searchProjectionContent(String datasetName) {
+        try {
+            ClientConfig clientConfig = config.get();
 
-            return jsonObj;
+            return NetworkCommunication.confirm(
+                    clientConfig, datasetName + clientConfig.getSearchContent(), "GET", MICROSERVICE);
 
         } catch (Exception exception) {
             // TODO Auto-generated catch block
@@ -168,33 +330,323 @@ public class ProjectionImplementation implements ProjectionInterface {
         }
     }
 
-    @Override
-    public JsonObject insertDatasetAttributeAsync(String datasetName, String attribute, String existingAttribute, Map<String, String> values, boolean newDataset) {
-        return null;
+    /**
+     * @summary The state of one multi-way join. Every level pairs the results of the level below, an odd dataset
+     * out is carried to the next level unchanged.
+     */
+    private static class JoinTree {
+
+        private final ClientConfig clientConfig;
+        private final String datasetName;
+        private final boolean removeExistingDatasets;
+        private final JoinProgressListener listener;
+        private final int total;
+        private final AtomicInteger completed = new AtomicInteger();
+        private final Semaphore slots;
+        private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+        // names the intermediate datasets of this join apart from user datasets and from other joins
+        private final String token = UUID.randomUUID().toString().replace("-", "");
+
+        JoinTree(ClientConfig clientConfig, String datasetName, boolean removeExistingDatasets, int maxConcurrency,
+                 JoinProgressListener listener, int total) {
+            this.clientConfig = clientConfig;
+            this.datasetName = datasetName;
+            this.removeExistingDatasets = removeExistingDatasets;
+            this.listener = listener;
+            this.total = total;
+            this.slots = new Semaphore(maxConcurrency);
+        }
+
+        /**
+         * @param inputs are the datasets of a subtree, the result is the join of all of them
+         */
+        CompletableFuture<JoinNode> join(List<String> inputs) {
+            return join(inputs, 0, inputs.size(), 0, 0);
+        }
+
+        /**
+         * @param depth and index locate the subtree, they name its intermediate dataset together with the token
+         */
+        private CompletableFuture<JoinNode> join(List<String> inputs, int from, int to, int depth, int index) {
+            if (to - from == 1)
+                return CompletableFuture.completedFuture(new JoinNode(inputs.get(from), false, null));
+
+            // the left subtree takes the largest power of two, this way the tree is as deep as a pairing by levels
+            int middle = from + Integer.highestOneBit(to - from - 1);
+            CompletableFuture<JoinNode> left = join(inputs, from, middle, depth + 1, index * 2);
+            CompletableFuture<JoinNode> right = join(inputs, middle, to, depth + 1, index * 2 + 1);
+            String resultName = depth == 0 ? datasetName
+                    : datasetName + "_part_" + token + "_" + depth + "_" + index;
+            int height = 32 - Integer.numberOfLeadingZeros(to - from - 1);
+
+            // a branch that failed leaves the result of its sibling behind, it is removed once the sibling is done
+            left.whenComplete((node, error) -> {
+                if (error != null || node.failed()) right.thenAccept(this::removeIntermediate);
+            });
+            right.whenComplete((node, error) -> {
+                if (error != null || node.failed()) left.thenAccept(this::removeIntermediate);
+            });
+
+            return left.thenCombine(right, (leftNode, rightNode) -> new JoinNode[]{leftNode, rightNode})
+                    .thenCompose(nodes -> {
+                        if (nodes[0].failed()) return CompletableFuture.completedFuture(nodes[0]);
+                        if (nodes[1].failed()) return CompletableFuture.completedFuture(nodes[1]);
+                        return joinPair(nodes[0], nodes[1], resultName, height);
+                    });
+        }
+
+        private CompletableFuture<JoinNode> joinPair(JoinNode left, JoinNode right, String resultName, int height) {
+            CompletableFuture<JoinNode> joined = new CompletableFuture<>();
+            Runnable start = () -> {
+                List<String> pair = list(left.datasetName, right.datasetName);
+                try {
+                    submitAndAwait(clientConfig, "POST", joinRequest(pair, null, resultName, removeExistingDatasets),
+                            pair).whenComplete((response, error) -> {
+                                release();
+                                // the intermediate inputs are removed whether the join succeeded or not
+                                removeIntermediate(left);
+                                removeIntermediate(right);
+                                if (error != null) {
+                                    joined.completeExceptionally(error);
+                                    return;
+                                }
+                                JoinNode node = new JoinNode(resultName, true, response);
+                                if (!node.failed())
+                                    listener.joined(height, left.datasetName, right.datasetName, resultName,
+                                            completed.incrementAndGet(), total);
+                                joined.complete(node);
+                            });
+                } catch (RuntimeException exception) {
+                    // the request was never sent, so the slot is released here
+                    release();
+                    removeIntermediate(left);
+                    removeIntermediate(right);
+                    joined.completeExceptionally(exception);
+                }
+            };
+
+            if (slots.tryAcquire()) start.run();
+            else {
+                waiting.add(start);
+                // a slot released between the failed acquire and the add would otherwise be lost
+                if (slots.tryAcquire()) runWaiting();
+            }
+            return joined;
+        }
+
+        private void release() {
+            slots.release();
+            if (!waiting.isEmpty() && slots.tryAcquire()) runWaiting();
+        }
+
+        private void runWaiting() {
+            Runnable next = waiting.poll();
+            if (next != null) next.run();
+            else release();
+        }
+
+        private void removeIntermediate(JoinNode node) {
+            if (!node.intermediate || node.failed() || removeExistingDatasets) return;
+            NetworkCommunication.confirmRequestAsync(clientConfig, node.datasetName, "DELETE", MICROSERVICE)
+                    .whenComplete((jsonObj, error) -> MetadataCache.shared().invalidate(node.datasetName));
+        }
     }
 
-    @Override
-    public JsonObject reduceDatasetAsync(String datasetName, int sizeReduction, boolean newDataset) {
-        return null;
+    private static class JoinNode {
+
+        private final String datasetName;
+        private final boolean intermediate;
+        private final JsonObject response;
+
+        JoinNode(String datasetName, boolean intermediate, JsonObject response) {
+            this.datasetName = datasetName;
+            this.intermediate = intermediate;
+            this.response = response;
+        }
+
+        /**
+         * @return whether the join answered with a message instead of finished metadata
+         */
+        boolean failed() {
+            if (response == null) return false;
+            JsonElement result = response.get(ResponseParser.RESULT);
+            return result == null || !result.isJsonArray();
+        }
     }
 
-    @Override
-    public JsonObject enlargeDatasetAsync(String datasetName, int sizeEnlarge, boolean newDataset) {
-        return null;
+    private static JsonObject removeAttributesRequest(String datasetName, String datasetOldName,
+                                                      Enumeration<String> attributes) {
+        JsonObject request = new JsonObject();
+        request.addProperty("datasetName", datasetName);
+        request.addProperty("datasetOldName", datasetOldName);
+        JsonArray array = new JsonArray();
+
+        while (attributes.hasMoreElements())
+            array.add(attributes.nextElement());
+
+        request.add("names", array);
+        return request;
     }
 
-    @Override
-    public JsonObject joinDatasetsAsync(Enumeration<String> datasetNames, String datasetName, boolean removeExistingDatasets) {
-        return null;
+    private static JsonObject insertAttributeRequest(String datasetName, String attribute,
+                                                     String existingAttribute, Map<String, String> values) {
+        JsonObject request = operation(datasetName, "insertAttribute");
+        request.addProperty("attribute", attribute);
+        request.addProperty("existingAttribute", existingAttribute);
+        request.add("values", object(values));
+        return request;
     }
 
-    @Override
-    public JsonObject joinDatasetsAsync(String datasetNameOne, String datasetNameTwo, Map<String, String> attributesAssociations, String datasetName, boolean removeExistingDatasets) {
-        return null;
+    private static JsonObject resizeRequest(String datasetName, String operation, String sizeProperty,
+                                            int percentage) {
+        if (percentage < 0) throw new IllegalArgumentException(sizeProperty + " must not be negative");
+
+        JsonObject request = operation(datasetName, operation);
+        request.addProperty(sizeProperty, percentage);
+        return request;
     }
 
-    @Override
-    public JsonObject updateDatasetValuesAsync(String datasetName, String attribute, Map<String, String> oldToNewValues) {
-        return null;
+    private static JsonObject joinRequest(List<String> inputs, Map<String, String> attributesAssociations,
+                                          String datasetName, boolean removeExistingDatasets) {
+        JsonObject request = operation(datasetName, "join");
+        JsonArray datasetNames = new JsonArray();
+        for (String input : inputs)
+            datasetNames.add(input);
+        request.add("datasetNames", datasetNames);
+        if (attributesAssociations != null)
+            request.add("attributesAssociations", object(attributesAssociations));
+        request.addProperty("removeExistingDatasets", removeExistingDatasets);
+        return request;
+    }
+
+    private static JsonObject updateValuesRequest(String datasetName, String attribute,
+                                                  Map<String, String> oldToNewValues) {
+        JsonObject request = operation(datasetName, "updateValues");
+        request.addProperty("attribute", attribute);
+        request.add("values", object(oldToNewValues));
+        return request;
+    }
+
+    private static JsonObject operation(String datasetName, String operation) {
+        JsonObject request = new JsonObject();
+        request.addProperty("datasetName", datasetName);
+        request.addProperty(OPERATION, operation);
+        return request;
+    }
+
+    private static JsonObject object(Map<String, String> values) {
+        JsonObject object = new JsonObject();
+        for (Map.Entry<String, String> value : values.entrySet())
+            object.addProperty(value.getKey(), value.getValue());
+        return object;
+    }
+
+    private static String method(boolean newDataset) {
+        return newDataset ? "POST" : "PATCH";
+    }
+
+    /**
+     * @param changed are the other datasets modified by the request, their cached metadata is dropped
+     */
+    private static CompletableFuture<JsonObject> submit(ClientConfig clientConfig, String method,
+                                                        JsonObject request, String... changed) {
+        return submit(clientConfig, method, request, list(changed));
+    }
+
+    private static CompletableFuture<JsonObject> submit(ClientConfig clientConfig, String method,
+                                                        JsonObject request, List<String> changed) {
+        if (request.has(OPERATION) && !clientConfig.isProjectionOperationsEnabled())
+            return unsupported(request.get(OPERATION).getAsString());
+
+        // dropped once the server answered, a lookup made meanwhile may have cached the old metadata
+        return NetworkCommunication.jsonRequestAsync(clientConfig, method, MICROSERVICE, true, request)
+                .whenComplete((jsonObj, error) -> {
+                    MetadataCache.shared().invalidate(request.get("datasetName").getAsString());
+                    for (String datasetName : changed)
+                        MetadataCache.shared().invalidate(datasetName);
+                });
+    }
+
+    private static CompletableFuture<JsonObject> submitAndAwait(ClientConfig clientConfig, String method,
+                                                                JsonObject request, String... changed) {
+        return submitAndAwait(clientConfig, method, request, list(changed));
+    }
+
+    private static CompletableFuture<JsonObject> submitAndAwait(ClientConfig clientConfig, String method,
+                                                                JsonObject request, List<String> changed) {
+        return submit(clientConfig, method, request, changed)
+                .thenCompose(jsonObj -> NetworkCommunication.awaitIfPending(clientConfig, MICROSERVICE,
+                        resultName(clientConfig, jsonObj, request.get("datasetName").getAsString()), jsonObj));
+    }
+
+    /**
+     * @return the dataset named in the URL of a pending response, a dataset created by the request may have a
+     * name chosen by Learning Orchestra
+     */
+    private static String resultName(ClientConfig clientConfig, JsonObject response, String datasetName) {
+        if (!NetworkCommunication.isPending(clientConfig, response)) return datasetName;
+
+        String url = response.get(ResponseParser.RESULT).getAsString();
+        String path = url.substring(0, url.length() - clientConfig.getSearchContent().length());
+        if (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        return name.isEmpty() ? datasetName : name;
+    }
+
+    /**
+     * @summary Joined datasets may be results of operations still running, they are awaited together with one
+     * metadata scan per polling interval before the join is sent. An input that does not exist, or whose metadata
+     * cannot be read, fails the join at once without waiting for the other inputs.
+     */
+    private static CompletableFuture<Void> awaitInputs(ClientConfig clientConfig, List<String> inputs) {
+        Map<String, CompletableFuture<JsonObject>> futures =
+                BatchAwaiter.shared().awaitExisting(clientConfig, "microservice_dataset", inputs);
+
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        if (futures.isEmpty()) ready.complete(null);
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (CompletableFuture<JsonObject> future : futures.values()) {
+            future.whenComplete((jsonObj, error) -> {
+                if (error != null) ready.completeExceptionally(error);
+                else if (remaining.decrementAndGet() == 0) ready.complete(null);
+            });
+        }
+        return ready;
+    }
+
+    private static <T> CompletableFuture<T> unsupported(String operation) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(new UnsupportedOperationException("the " + operation
+                + " projection is not supported by Learning Orchestra, set " + ClientConfig.PROJECTION_OPERATIONS
+                + " to true for a server that supports it"));
+        return future;
+    }
+
+    private static JsonObject join(CompletableFuture<JsonObject> future) {
+        try {
+            return future.get();
+
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    private static List<String> list(Enumeration<String> names) {
+        List<String> list = new ArrayList<>();
+        while (names.hasMoreElements())
+            list.add(names.nextElement());
+        return list;
+    }
+
+    private static List<String> list(String... names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names)
+            list.add(name);
+        return list;
     }
 }
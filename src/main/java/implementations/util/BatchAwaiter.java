@@ -0,0 +1,171 @@
+package implementations.util;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class waits for many datasets of the same microservice at once. Every tick reads the metadata of
+ * all datasets of the microservice with a single request and completes the future of each pending dataset that is
+ * finished, this way the polling traffic does not grow with the number of pending datasets.
+ */
+public class BatchAwaiter {
+
+    private static final BatchAwaiter SHARED = new BatchAwaiter(JobPoller.shared());
+
+    private final JobPoller poller;
+    private final ConcurrentMap<String, Tracker> trackers = new ConcurrentHashMap<>();
+
+    public BatchAwaiter(JobPoller poller) {
+        this.poller = poller;
+    }
+
+    public static BatchAwaiter shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param config           is the client configuration
+     * @param microserviceName is the name of the microservice property, for instance microservice_dataset
+     * @param datasetNames     are the datasets to wait for
+     * @return a future per dataset name, completed with the dataset metadata as soon as the dataset is finished, or
+     * completed exceptionally with a JobFailedException when the dataset does not exist. Names already pending
+     * from an earlier call share the same future.
+     */
+    public Map<String, CompletableFuture<JsonObject>> awaitAll(ClientConfig config, String microserviceName,
+                                                              Collection<String> datasetNames) {
+        String key = config.getAddress() + config.getMicroservice(microserviceName);
+        Tracker tracker = trackers.computeIfAbsent(key, ignored -> new Tracker(microserviceName));
+
+        Map<String, CompletableFuture<JsonObject>> futures = new LinkedHashMap<>();
+        // the cache is not trusted, a dataset finished earlier may have been changed since by another client
+        for (String datasetName : datasetNames)
+            futures.put(datasetName,
+                    tracker.pending.computeIfAbsent(datasetName, ignored -> new CompletableFuture<>()));
+
+        tracker.start(config);
+        return futures;
+    }
+
+    /**
+     * @param config           is the client configuration
+     * @param microserviceName is the name of the microservice property, for instance microservice_dataset
+     * @param datasetNames     are the datasets to wait for, each is expected to exist already
+     * @return a future per dataset name, like awaitAll. The metadata of every dataset is read once first, a dataset
+     * that does not exist or whose metadata cannot be read fails at once with a JobFailedException, and only the
+     * datasets that exist but are unfinished are awaited.
+     */
+    public Map<String, CompletableFuture<JsonObject>> awaitExisting(ClientConfig config, String microserviceName,
+                                                                   Collection<String> datasetNames) {
+        Map<String, CompletableFuture<JsonObject>> futures = new LinkedHashMap<>();
+        for (String datasetName : datasetNames) {
+            futures.put(datasetName, CompletableFuture.supplyAsync(() -> {
+                try {
+                    return JobPoller.probeFinished(config, microserviceName, datasetName);
+                } catch (JobFailedException exception) {
+                    throw new CompletionException(exception);
+                } catch (IOException exception) {
+                    throw new CompletionException(new JobFailedException("the metadata of " + datasetName + " in "
+                            + microserviceName + " cannot be read: " + exception.getMessage(), exception));
+                }
+            }, ClientExecutors.requests()).thenCompose(finished -> finished != null
+                    ? CompletableFuture.completedFuture(finished)
+                    : awaitAll(config, microserviceName, Collections.singletonList(datasetName)).get(datasetName)));
+        }
+        return futures;
+    }
+
+    public int getPendingCount() {
+        int pending = 0;
+        for (Tracker tracker : trackers.values())
+            pending += tracker.pending.size();
+        return pending;
+    }
+
+    private class Tracker {
+
+        private final String microserviceName;
+        private final ConcurrentMap<String, CompletableFuture<JsonObject>> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean running = new AtomicBoolean();
+
+        Tracker(String microserviceName) {
+            this.microserviceName = microserviceName;
+        }
+
+        void start(ClientConfig config) {
+            if (pending.isEmpty() || !running.compareAndSet(false, true)) return;
+
+            poller.poll(microserviceName + " batch", () -> tick(config), PollingPolicy.from(config))
+                    .whenComplete((done, error) -> {
+                        if (error != null) {
+                            for (String datasetName : pending.keySet()) {
+                                CompletableFuture<JsonObject> future = pending.remove(datasetName);
+                                if (future != null) future.completeExceptionally(error);
+                            }
+                        }
+                        running.set(false);
+                        // names added while the last tick was deciding to stop start a new loop
+                        start(config);
+                    });
+        }
+
+        private Boolean tick(ClientConfig config) {
+            pending.values().removeIf(CompletableFuture::isDone);
+            if (pending.isEmpty()) return Boolean.TRUE;
+
+            // only the names pending before the listing is requested can be judged by it, the names added while it
+            // is in flight may belong to datasets created after the listing was taken
+            Map<String, CompletableFuture<JsonObject>> listedFor = new HashMap<>(pending);
+            Set<String> listed = new HashSet<>();
+            long stamp = MetadataCache.shared().stamp();
+            JsonObject response = NetworkCommunication.confirm(config, "", "GET", microserviceName, row -> {
+                JsonElement datasetName = row.get("datasetName");
+                JsonElement finished = row.get("finished");
+                if (datasetName != null) listed.add(datasetName.getAsString());
+                if (datasetName == null || finished == null || !"true".equals(finished.getAsString()))
+                    return;
+
+                MetadataCache.shared().put(microserviceName, JsonSerialization.toResult(row), stamp);
+
+                CompletableFuture<JsonObject> future = pending.remove(datasetName.getAsString());
+                if (future != null) {
+                    JsonArray result = new JsonArray();
+                    result.add(row);
+                    JsonObject jsonObj = new JsonObject();
+                    jsonObj.add(ResponseParser.RESULT, result);
+                    future.complete(jsonObj);
+                }
+            });
+            // an error response lists nothing, the next tick decides
+            if (response == null || !(response.get(ResponseParser.RESULT) instanceof JsonArray)) return null;
+
+            // a dataset missing from the listing will never finish, its future fails instead of waiting for the
+            // deadline
+            for (Map.Entry<String, CompletableFuture<JsonObject>> entry : listedFor.entrySet()) {
+                String datasetName = entry.getKey();
+                if (listed.contains(datasetName)) continue;
+                // a future replaced meanwhile is decided by the next tick
+                if (pending.remove(datasetName, entry.getValue()))
+                    entry.getValue().completeExceptionally(new JobFailedException(
+                            "the dataset " + datasetName + " does not exist in " + microserviceName));
+            }
+            return pending.isEmpty() ? Boolean.TRUE : null;
+        }
+    }
+}
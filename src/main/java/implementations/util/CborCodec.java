@@ -0,0 +1,530 @@
+package implementations.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The CBOR wire format of RFC 8949. Strings and numbers are length prefixed binary values, so decoding
+ * copies them instead of scanning quotes and escapes or parsing digits, and integers and floats are smaller than
+ * their text. Both directions are streams. Every CBOR value decodes to the JSON tree model: byte strings become
+ * base64url strings, as RFC 8949 advises, bignums become BigInteger numbers and other tags are ignored.
+ */
+public final class CborCodec implements Codec {
+
+    public static final String MEDIA_TYPE = "application/cbor";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int UNSIGNED = 0;
+    private static final int NEGATIVE = 1;
+    private static final int BYTES = 2;
+    private static final int TEXT = 3;
+    private static final int ARRAY = 4;
+    private static final int MAP = 5;
+    private static final int TAG = 6;
+
+    private static final int INDEFINITE = 31;
+    private static final int BREAK = 0xff;
+    private static final int FALSE = 0xf4;
+    private static final int TRUE = 0xf5;
+    private static final int NULL = 0xf6;
+    private static final int UNDEFINED = 0xf7;
+    private static final int HALF = 0xf9;
+    private static final int FLOAT = 0xfa;
+    private static final int DOUBLE = 0xfb;
+
+    private static final long POSITIVE_BIGNUM = 2;
+    private static final long NEGATIVE_BIGNUM = 3;
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public JsonObject parseObject(InputStream inputStream) throws IOException {
+        Decoder decoder = new Decoder(inputStream);
+        if (decoder.isEmpty()) return null;
+
+        JsonElement element = decoder.next();
+        if (!element.isJsonObject())
+            throw new JsonParseException("expected a CBOR map but found " + element);
+        return element.getAsJsonObject();
+    }
+
+    @Override
+    public JsonObject forEachResult(InputStream inputStream, Consumer<JsonObject> rowConsumer) throws IOException {
+        Decoder decoder = new Decoder(inputStream);
+        if (decoder.isEmpty()) return null;
+
+        JsonObject envelope = new JsonObject();
+        long members = decoder.beginContainer(MAP);
+        for (long member = 0; decoder.hasNext(members, member); member++) {
+            String name = decoder.nextName();
+
+            if (ResponseParser.RESULT.equals(name) && decoder.peekMajor() == ARRAY) {
+                long rows = decoder.beginContainer(ARRAY);
+                for (long row = 0; decoder.hasNext(rows, row); row++) {
+                    JsonElement element = decoder.next();
+                    if (!element.isJsonObject())
+                        throw new JsonParseException("expected a CBOR map as result row but found " + element);
+                    rowConsumer.accept(element.getAsJsonObject());
+                }
+                envelope.add(ResponseParser.RESULT, new JsonArray());
+            } else {
+                envelope.add(name, decoder.next());
+            }
+        }
+        return envelope;
+    }
+
+    @Override
+    public void write(JsonElement element, OutputStream outputStream) throws IOException {
+        Encoder encoder = new Encoder(outputStream);
+        encoder.write(element);
+        encoder.flush();
+    }
+
+    @Override
+    public ResultWriter openResults(OutputStream outputStream) throws IOException {
+        Encoder encoder = new Encoder(outputStream);
+        encoder.head(MAP, 1);
+        encoder.text(ResponseParser.RESULT);
+        // the number of rows is not known up front, so the array is ended by a break
+        encoder.indefinite(ARRAY);
+
+        return new ResultWriter() {
+            @Override
+            public void write(JsonElement row) throws IOException {
+                encoder.write(row);
+            }
+
+            @Override
+            public void close() throws IOException {
+                encoder.writeByte(BREAK);
+                encoder.flush();
+                outputStream.close();
+            }
+        };
+    }
+
+    private static class Decoder {
+
+        private final InputStream inputStream;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+        private int limit;
+
+        Decoder(InputStream inputStream) {
+            this.inputStream = inputStream;
+        }
+
+        boolean isEmpty() throws IOException {
+            return !fill(1);
+        }
+
+        int peekMajor() throws IOException {
+            require(1);
+            return (buffer[position] & 0xff) >>> 5;
+        }
+
+        /**
+         * @return the number of items, or -1 when the container is ended by a break
+         */
+        long beginContainer(int major) throws IOException {
+            int initial = readByte();
+            if (initial >>> 5 != major)
+                throw new JsonParseException("expected CBOR major type " + major + " but found " + (initial >>> 5));
+            if ((initial & 0x1f) == INDEFINITE) return -1;
+            return count(argument(initial));
+        }
+
+        boolean hasNext(long count, long index) throws IOException {
+            if (count >= 0) return index < count;
+            require(1);
+            if ((buffer[position] & 0xff) != BREAK) return true;
+            position++;
+            return false;
+        }
+
+        String nextName() throws IOException {
+            require(1);
+            if ((buffer[position] & 0xff) >>> 5 == TEXT) return text(readByte());
+            JsonElement key = next();
+            return key.isJsonPrimitive() ? key.getAsString() : key.toString();
+        }
+
+        JsonElement next() throws IOException {
+            int initial = readByte();
+            switch (initial >>> 5) {
+                case UNSIGNED: {
+                    long value = argument(initial);
+                    return value >= 0 ? new JsonPrimitive(value) : new JsonPrimitive(unsigned(value));
+                }
+                case NEGATIVE: {
+                    long value = argument(initial);
+                    return value >= 0 ? new JsonPrimitive(-1 - value)
+                            : new JsonPrimitive(unsigned(value).add(BigInteger.ONE).negate());
+                }
+                case BYTES:
+                    return new JsonPrimitive(Base64.getUrlEncoder().withoutPadding().encodeToString(bytes(initial)));
+                case TEXT:
+                    return new JsonPrimitive(text(initial));
+                case ARRAY: {
+                    long count = (initial & 0x1f) == INDEFINITE ? -1 : count(argument(initial));
+                    JsonArray array = new JsonArray();
+                    for (long index = 0; hasNext(count, index); index++)
+                        array.add(next());
+                    return array;
+                }
+                case MAP: {
+                    long count = (initial & 0x1f) == INDEFINITE ? -1 : count(argument(initial));
+                    JsonObject object = new JsonObject();
+                    for (long index = 0; hasNext(count, index); index++) {
+                        String name = nextName();
+                        object.add(name, next());
+                    }
+                    return object;
+                }
+                case TAG:
+                    return tagged(argument(initial));
+                default:
+                    // major type 7, floats and simple values
+                    return simple(initial);
+            }
+        }
+
+        private JsonElement tagged(long tag) throws IOException {
+            if ((tag != POSITIVE_BIGNUM && tag != NEGATIVE_BIGNUM) || peekMajor() != BYTES) return next();
+
+            BigInteger value = new BigInteger(1, bytes(readByte()));
+            return new JsonPrimitive(tag == POSITIVE_BIGNUM ? value : value.add(BigInteger.ONE).negate());
+        }
+
+        private JsonElement simple(int initial) throws IOException {
+            switch (initial) {
+                case FALSE:
+                    return new JsonPrimitive(false);
+                case TRUE:
+                    return new JsonPrimitive(true);
+                case NULL:
+                case UNDEFINED:
+                    return JsonNull.INSTANCE;
+                case HALF:
+                    return new JsonPrimitive(half((int) readUnsigned(2)));
+                case FLOAT:
+                    return new JsonPrimitive((double) Float.intBitsToFloat((int) readUnsigned(4)));
+                case DOUBLE:
+                    return new JsonPrimitive(Double.longBitsToDouble(readUnsigned(8)));
+                default:
+                    throw new JsonParseException("unsupported CBOR simple value " + initial);
+            }
+        }
+
+        private String text(int initial) throws IOException {
+            if ((initial & 0x1f) == INDEFINITE) return new String(chunks(TEXT), StandardCharsets.UTF_8);
+
+            int length = count(argument(initial));
+            if (length <= buffer.length) {
+                require(length);
+                String text = new String(buffer, position, length, StandardCharsets.UTF_8);
+                position += length;
+                return text;
+            }
+            return new String(readFully(length), StandardCharsets.UTF_8);
+        }
+
+        private byte[] bytes(int initial) throws IOException {
+            if ((initial & 0x1f) == INDEFINITE) return chunks(BYTES);
+            return readFully(count(argument(initial)));
+        }
+
+        /**
+         * @return the concatenated chunks of an indefinite length string
+         */
+        private byte[] chunks(int major) throws IOException {
+            byte[] chunks = new byte[0];
+            while (hasNext(-1, 0)) {
+                int initial = readByte();
+                if (initial >>> 5 != major || (initial & 0x1f) == INDEFINITE)
+                    throw new JsonParseException("malformed CBOR string chunk " + initial);
+                byte[] chunk = readFully(count(argument(initial)));
+                int start = chunks.length;
+                chunks = Arrays.copyOf(chunks, start + chunk.length);
+                System.arraycopy(chunk, 0, chunks, start, chunk.length);
+            }
+            return chunks;
+        }
+
+        private long argument(int initial) throws IOException {
+            int info = initial & 0x1f;
+            if (info < 24) return info;
+            switch (info) {
+                case 24:
+                    return readUnsigned(1);
+                case 25:
+                    return readUnsigned(2);
+                case 26:
+                    return readUnsigned(4);
+                case 27:
+                    // may be negative as a long, the caller reads it as unsigned
+                    return readUnsigned(8);
+                default:
+                    throw new JsonParseException("malformed CBOR argument " + info);
+            }
+        }
+
+        private long readUnsigned(int length) throws IOException {
+            require(length);
+            long value = 0;
+            for (int index = 0; index < length; index++)
+                value = (value << 8) | (buffer[position++] & 0xff);
+            return value;
+        }
+
+        private int readByte() throws IOException {
+            require(1);
+            return buffer[position++] & 0xff;
+        }
+
+        private byte[] readFully(int length) throws IOException {
+            byte[] bytes = new byte[length];
+            int copied = Math.min(length, limit - position);
+            System.arraycopy(buffer, position, bytes, 0, copied);
+            position += copied;
+            while (copied < length) {
+                int read = inputStream.read(bytes, copied, length - copied);
+                if (read < 0) throw new EOFException("truncated CBOR string");
+                copied += read;
+            }
+            return bytes;
+        }
+
+        private void require(int length) throws IOException {
+            if (!fill(length)) throw new EOFException("truncated CBOR value");
+        }
+
+        /**
+         * @return whether at least length bytes are buffered, reading more when needed
+         */
+        private boolean fill(int length) throws IOException {
+            if (limit - position >= length) return true;
+
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+            while (limit < length) {
+                int read = inputStream.read(buffer, limit, buffer.length - limit);
+                if (read < 0) return false;
+                limit += read;
+            }
+            return true;
+        }
+
+        private static int count(long argument) {
+            if (argument < 0 || argument > Integer.MAX_VALUE)
+                throw new JsonParseException("CBOR length " + Long.toUnsignedString(argument) + " is too large");
+            return (int) argument;
+        }
+
+        private static BigInteger unsigned(long value) {
+            return new BigInteger(Long.toUnsignedString(value));
+        }
+
+        private static double half(int bits) {
+            int exponent = (bits >>> 10) & 0x1f;
+            int mantissa = bits & 0x3ff;
+            double value;
+            if (exponent == 0)
+                value = Math.scalb((double) mantissa, -24);
+            else if (exponent == 31)
+                value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+            else
+                value = Math.scalb((double) (mantissa + 1024), exponent - 25);
+            return (bits & 0x8000) != 0 ? -value : value;
+        }
+    }
+
+    private static class Encoder {
+
+        private final OutputStream outputStream;
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position;
+
+        Encoder(OutputStream outputStream) {
+            this.outputStream = outputStream;
+        }
+
+        void write(JsonElement element) throws IOException {
+            if (element == null || element.isJsonNull()) {
+                writeByte(NULL);
+            } else if (element.isJsonObject()) {
+                JsonObject object = element.getAsJsonObject();
+                head(MAP, object.entrySet().size());
+                for (Map.Entry<String, JsonElement> member : object.entrySet()) {
+                    text(member.getKey());
+                    write(member.getValue());
+                }
+            } else if (element.isJsonArray()) {
+                JsonArray array = element.getAsJsonArray();
+                head(ARRAY, array.size());
+                for (JsonElement item : array)
+                    write(item);
+            } else {
+                JsonPrimitive primitive = element.getAsJsonPrimitive();
+                if (primitive.isString())
+                    text(primitive.getAsString());
+                else if (primitive.isBoolean())
+                    writeByte(primitive.getAsBoolean() ? TRUE : FALSE);
+                else
+                    number(primitive.getAsNumber());
+            }
+        }
+
+        void text(String text) throws IOException {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            head(TEXT, bytes.length);
+            writeBytes(bytes);
+        }
+
+        /**
+         * @summary Integers are written as CBOR integers, other numbers as single precision floats when that loses
+         * nothing, as double precision floats otherwise. Numbers parsed from JSON text are typed by their text.
+         */
+        private void number(Number number) throws IOException {
+            if (number instanceof Integer || number instanceof Long || number instanceof Short
+                    || number instanceof Byte) {
+                integer(number.longValue());
+            } else if (number instanceof Double || number instanceof Float) {
+                floating(number.doubleValue());
+            } else if (number instanceof BigInteger) {
+                bigInteger((BigInteger) number);
+            } else {
+                String text = number.toString();
+                if (isInteger(text))
+                    bigInteger(new BigInteger(text));
+                else
+                    floating(Double.parseDouble(text));
+            }
+        }
+
+        private void integer(long value) throws IOException {
+            if (value >= 0)
+                head(UNSIGNED, value);
+            else
+                head(NEGATIVE, -1 - value);
+        }
+
+        private void bigInteger(BigInteger value) throws IOException {
+            if (value.bitLength() < 64) {
+                integer(value.longValue());
+                return;
+            }
+            boolean negative = value.signum() < 0;
+            byte[] magnitude = (negative ? value.add(BigInteger.ONE).negate() : value).toByteArray();
+            // toByteArray adds a sign byte when the highest bit is set
+            int start = magnitude[0] == 0 ? 1 : 0;
+            head(TAG, negative ? NEGATIVE_BIGNUM : POSITIVE_BIGNUM);
+            head(BYTES, magnitude.length - start);
+            writeBytes(magnitude, start, magnitude.length - start);
+        }
+
+        private void floating(double value) throws IOException {
+            float single = (float) value;
+            if (single == value || Double.isNaN(value)) {
+                writeByte(FLOAT);
+                writeUnsigned(Float.floatToIntBits(single), 4);
+            } else {
+                writeByte(DOUBLE);
+                writeUnsigned(Double.doubleToLongBits(value), 8);
+            }
+        }
+
+        void head(int major, long argument) throws IOException {
+            int type = major << 5;
+            if (argument >= 0 && argument < 24) {
+                writeByte(type | (int) argument);
+            } else if (argument >= 0 && argument < 0x100) {
+                writeByte(type | 24);
+                writeUnsigned(argument, 1);
+            } else if (argument >= 0 && argument < 0x10000) {
+                writeByte(type | 25);
+                writeUnsigned(argument, 2);
+            } else if (argument >= 0 && argument < 0x100000000L) {
+                writeByte(type | 26);
+                writeUnsigned(argument, 4);
+            } else {
+                writeByte(type | 27);
+                writeUnsigned(argument, 8);
+            }
+        }
+
+        void indefinite(int major) throws IOException {
+            writeByte((major << 5) | INDEFINITE);
+        }
+
+        void writeByte(int value) throws IOException {
+            if (position == buffer.length) drain();
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeUnsigned(long value, int length) throws IOException {
+            if (buffer.length - position < length) drain();
+            for (int shift = 8 * (length - 1); shift >= 0; shift -= 8)
+                buffer[position++] = (byte) (value >>> shift);
+        }
+
+        private void writeBytes(byte[] bytes) throws IOException {
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.length - position) {
+                drain();
+                if (length > buffer.length) {
+                    outputStream.write(bytes, offset, length);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, offset, buffer, position, length);
+            position += length;
+        }
+
+        void flush() throws IOException {
+            drain();
+            outputStream.flush();
+        }
+
+        private void drain() throws IOException {
+            if (position > 0) outputStream.write(buffer, 0, position);
+            position = 0;
+        }
+
+        private static boolean isInteger(String text) {
+            int start = text.startsWith("-") ? 1 : 0;
+            if (start == text.length()) return false;
+            for (int index = start; index < text.length(); index++) {
+                char character = text.charAt(index);
+                if (character < '0' || character > '9') return false;
+            }
+            return true;
+        }
+    }
+}
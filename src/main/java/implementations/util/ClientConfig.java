@@ -0,0 +1,177 @@
+package implementations.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class holds the client configuration read from config.properties. It is immutable, so a single
+ * instance can be shared by every thread, and a new instance is built when the configuration changes.
+ */
+public final class ClientConfig {
+
+    public static final String ADDRESS = "address";
+    public static final String WAIT_TIME = "wait_time";
+    public static final String SEARCH_METADATA = "search_metadata";
+    public static final String SEARCH_CONTENT = "search_content";
+    public static final String PAGE_SIZE = "page_size";
+    public static final String ACCEPT_ENCODING = "accept_encoding";
+    public static final String REQUEST_COMPRESSION_THRESHOLD = "request_compression_threshold";
+    public static final String ACCEPT = "accept";
+    public static final String PROJECTION_OPERATIONS = "projection_operations";
+
+    private final Map<String, String> properties;
+    private final String address;
+    private final int waitTime;
+    private final String searchMetadata;
+    private final String searchContent;
+    private final int pageSize;
+    private final String acceptEncoding;
+    private final int requestCompressionThreshold;
+    private final String accept;
+    private final boolean projectionOperations;
+
+    private ClientConfig(Map<String, String> properties) {
+        this.properties = Collections.unmodifiableMap(properties);
+        this.address = require(ADDRESS);
+        this.waitTime = getInt(WAIT_TIME, 3000);
+        this.searchMetadata = require(SEARCH_METADATA);
+        this.searchContent = require(SEARCH_CONTENT);
+        this.pageSize = getInt(PAGE_SIZE, 20);
+        this.acceptEncoding = getProperty(ACCEPT_ENCODING, ContentEncoding.GZIP + ", " + ContentEncoding.DEFLATE);
+        this.requestCompressionThreshold = getInt(REQUEST_COMPRESSION_THRESHOLD, -1);
+        this.accept = getProperty(ACCEPT, JsonCodec.MEDIA_TYPE);
+        this.projectionOperations = Boolean.parseBoolean(getProperty(PROJECTION_OPERATIONS, "false"));
+    }
+
+    public static ClientConfig load(Path path) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(path)) {
+            properties.load(inputStream);
+        }
+        return fromProperties(properties);
+    }
+
+    public static ClientConfig fromProperties(Properties properties) {
+        Map<String, String> values = new HashMap<>();
+        for (String name : properties.stringPropertyNames())
+            values.put(name, properties.getProperty(name).trim());
+        return new ClientConfig(values);
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public int getWaitTime() {
+        return waitTime;
+    }
+
+    public String getSearchMetadata() {
+        return searchMetadata;
+    }
+
+    public String getSearchContent() {
+        return searchContent;
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * @return the Accept-Encoding header of the requests, gzip and deflate unless configured otherwise. Identity
+     * turns the compression of responses off.
+     */
+    public String getAcceptEncoding() {
+        return acceptEncoding;
+    }
+
+    /**
+     * @return the size in bytes above which request bodies are sent compressed with gzip, or -1 when they are never
+     * compressed, the default. Only set it when the server accepts compressed requests.
+     */
+    public int getRequestCompressionThreshold() {
+        return requestCompressionThreshold;
+    }
+
+    /**
+     * @return the Accept header of the searches, JSON unless configured otherwise. A server answering content
+     * searches with CBOR is used by setting it to "application/cbor, application/json;q=0.9". The other requests
+     * always accept JSON only.
+     */
+    public String getAccept() {
+        return accept;
+    }
+
+    /**
+     * @return whether the projection operations other than the attribute removal are sent, false unless
+     * configured otherwise. The projection microservice of Learning Orchestra only removes attributes, the other
+     * operations name themselves in an operation property that only a server built for it, like the benchmark
+     * simulator, understands.
+     */
+    public boolean isProjectionOperationsEnabled() {
+        return projectionOperations;
+    }
+
+    public String getMicroservice(String microserviceName) {
+        return require(microserviceName);
+    }
+
+    public String getProperty(String name) {
+        return properties.get(name);
+    }
+
+    public String getProperty(String name, String defaultValue) {
+        String value = properties.get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    public int getInt(String name, int defaultValue) {
+        String value = properties.get(name);
+        if (value == null || value.isEmpty()) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException exception) {
+            throw new IllegalArgumentException("property " + name + " is not an integer: " + value, exception);
+        }
+    }
+
+    public Map<String, String> asMap() {
+        return properties;
+    }
+
+    public URL url(String microserviceName, String resource) throws MalformedURLException {
+        String microService = getMicroservice(microserviceName);
+        if (resource.isEmpty() || resource.startsWith("?") || microService.endsWith("/"))
+            return new URL(address + microService + resource);
+        return new URL(address + microService + "/" + resource);
+    }
+
+    public ClientConfig with(String name, String value) {
+        Map<String, String> values = new HashMap<>(properties);
+        values.put(name, value);
+        return new ClientConfig(values);
+    }
+
+    private String require(String name) {
+        String value = properties.get(name);
+        if (value == null)
+            throw new IllegalArgumentException("missing property " + name + " in the client configuration");
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return "ClientConfig" + properties;
+    }
+}
@@ -0,0 +1,47 @@
+package implementations.util;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class holds the thread pools shared by the client. Every thread is a daemon, this way background
+ * work of the client never keeps the JVM alive.
+ */
+public final class ClientExecutors {
+
+    private static final ExecutorService IO = Executors.newCachedThreadPool(daemonThreads("learning-orchestra-io"));
+    private static final ExecutorService REQUESTS = Executors.newFixedThreadPool(
+            PooledHttpTransport.DEFAULT_MAX_CONNECTIONS_PER_HOST, daemonThreads("learning-orchestra-request"));
+
+    private ClientExecutors() {
+    }
+
+    /**
+     * @return a shared pool for blocking network calls made on behalf of the caller, for instance page prefetches
+     */
+    public static ExecutorService io() {
+        return IO;
+    }
+
+    /**
+     * @return a bounded pool for short requests issued by the asynchronous API and by the job poller. Its size
+     * matches the default number of connections per host, so queued requests wait here instead of holding
+     * threads blocked on the connection pool.
+     */
+    public static ExecutorService requests() {
+        return REQUESTS;
+    }
+
+    public static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package implementations.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A wire format of Learning Orchestra responses. Whatever the format, the client works with the JSON tree
+ * model of Gson, so a binary format only changes how the bytes are read and written. Codecs are registered in
+ * Codecs by media type and picked from the Content-Type of every response.
+ */
+public interface Codec {
+
+    /**
+     * @return the media type sent in the Accept and Content-Type headers, for instance application/json
+     */
+    String getMediaType();
+
+    /**
+     * @param inputStream is the response body
+     * @return the parsed object or null if the body is empty
+     * @throws IOException if the body cannot be read
+     * @summary This method parses a complete response object.
+     */
+    JsonObject parseObject(InputStream inputStream) throws IOException;
+
+    /**
+     * @param inputStream is the response body
+     * @param rowConsumer receives every object of the result array, in order
+     * @return the response object without the rows, or null if the body is empty. When the result field is an
+     * array, it is kept in the returned object as an empty array, as ResponseParser does.
+     * @throws IOException if the body cannot be read
+     * @summary This method streams the rows of a response to a consumer.
+     */
+    JsonObject forEachResult(InputStream inputStream, Consumer<JsonObject> rowConsumer) throws IOException;
+
+    /**
+     * @param element      is the value to encode
+     * @param outputStream receives the encoded value. It is flushed but not closed.
+     * @throws IOException if the stream cannot be written
+     * @summary This method encodes a complete value.
+     */
+    void write(JsonElement element, OutputStream outputStream) throws IOException;
+
+    /**
+     * @param outputStream receives a response object whose result field is an array
+     * @return a writer adding the rows of the array one by one
+     * @throws IOException if the stream cannot be written
+     * @summary This method streams a response, so a page of any size costs the memory of a single row.
+     */
+    ResultWriter openResults(OutputStream outputStream) throws IOException;
+}
@@ -0,0 +1,60 @@
+package implementations.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class picks the codec of a response from its Content-Type header. The client asks for the formats
+ * of ClientConfig.getAccept, and Learning Orchestra answers with JSON unless a server or a proxy in front of it
+ * supports one of the others, so every response without a registered media type is read as JSON. Other formats,
+ * such as MessagePack or Smile, are plugged in by registering a codec and adding its media type to the accept
+ * property.
+ */
+public final class Codecs {
+
+    public static final Codec JSON = new JsonCodec();
+    public static final Codec CBOR = new CborCodec();
+
+    private static final Map<String, Codec> CODECS = new ConcurrentHashMap<>();
+
+    static {
+        register(JSON);
+        register(CBOR);
+    }
+
+    private Codecs() {
+    }
+
+    /**
+     * @summary Registers a codec under its media type, replacing the codec registered before under the same type.
+     */
+    public static void register(Codec codec) {
+        CODECS.put(mediaType(codec.getMediaType()), codec);
+    }
+
+    /**
+     * @param contentType is the Content-Type header of a response, null when it has none
+     * @return the codec registered for the media type, JSON when there is none
+     */
+    public static Codec forContentType(String contentType) {
+        if (contentType == null) return JSON;
+        Codec codec = CODECS.get(mediaType(contentType));
+        return codec != null ? codec : JSON;
+    }
+
+    public static Codec forResponse(HttpResponse response) {
+        return forContentType(response.getHeader("Content-Type"));
+    }
+
+    /**
+     * @return the media type without its parameters, such as charset, in lower case
+     */
+    private static String mediaType(String contentType) {
+        int parameters = contentType.indexOf(';');
+        String mediaType = parameters < 0 ? contentType : contentType.substring(0, parameters);
+        return mediaType.trim().toLowerCase(Locale.ROOT);
+    }
+}
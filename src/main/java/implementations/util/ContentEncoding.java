@@ -0,0 +1,215 @@
+package implementations.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class compresses request bodies and decompresses response bodies, as negotiated by the
+ * Accept-Encoding and Content-Encoding headers. Responses are decompressed while they are read. Requests are
+ * compressed once into a spool, small ones in memory and large ones in a temporary file, and sent from it.
+ */
+public final class ContentEncoding {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String IDENTITY = "identity";
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int SPOOL_MEMORY_LIMIT = 1024 * 1024;
+
+    private ContentEncoding() {
+    }
+
+    /**
+     * @param contentEncoding is the Content-Encoding header of the response, null when it has none
+     * @param body            is the body as received
+     * @return the decompressed body. The decoder is only created at the first read, because creating it already
+     * reads the compressed header.
+     */
+    public static InputStream decode(String contentEncoding, InputStream body) {
+        if (contentEncoding == null) return body;
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || IDENTITY.equals(encoding)) return body;
+
+        return new LazyDecoder(body, encoding);
+    }
+
+    /**
+     * @return the body compressed with gzip. The body is written and compressed once, into a spool, this way the
+     * request has a Content-Length like an uncompressed one, which WSGI servers need, and a retried request sends
+     * the spool again instead of compressing again. A spool larger than 1 MiB is a temporary file, closing the
+     * returned body deletes it.
+     * @throws IOException if the body cannot be written or the temporary file cannot be created
+     */
+    public static SpooledBody gzip(RequestBody body) throws IOException {
+        Spool spool = new Spool();
+        try {
+            GZIPOutputStream gzip = new GZIPOutputStream(spool, BUFFER_SIZE);
+            body.writeTo(gzip);
+            // close writes the trailer and frees the deflater, the spool only flushes its file
+            gzip.close();
+            return new SpooledBody(spool);
+        } catch (IOException | RuntimeException exception) {
+            spool.release();
+            throw exception;
+        }
+    }
+
+    private static InputStream decoder(String encoding, InputStream body) throws IOException {
+        switch (encoding) {
+            case GZIP:
+            case "x-gzip":
+                return new GZIPInputStream(body, BUFFER_SIZE);
+            case DEFLATE:
+                // deflate should be zlib wrapped, but some servers send raw deflate data
+                PushbackInputStream pushback = new PushbackInputStream(body, 2);
+                int first = pushback.read();
+                int second = pushback.read();
+                if (second != -1) pushback.unread(second);
+                if (first != -1) pushback.unread(first);
+                boolean zlib = first != -1 && second != -1 && (first & 0x0f) == 8 && ((first << 8) | second) % 31 == 0;
+                return new InflaterInputStream(pushback, new Inflater(!zlib), BUFFER_SIZE);
+            default:
+                throw new IOException("unsupported Content-Encoding " + encoding);
+        }
+    }
+
+    /**
+     * @summary A request body already encoded, held in memory or in a temporary file. It can be sent any number of
+     * times until it is closed.
+     */
+    public static final class SpooledBody implements RequestBody, Closeable {
+
+        private final Spool spool;
+
+        private SpooledBody(Spool spool) {
+            this.spool = spool;
+        }
+
+        @Override
+        public long contentLength() {
+            return spool.size;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            if (spool.file == null)
+                spool.memory.writeTo(outputStream);
+            else
+                RequestBody.of(spool.file, 0, spool.size, false).writeTo(outputStream);
+        }
+
+        /**
+         * @summary Deletes the temporary file, if the body has one.
+         */
+        @Override
+        public void close() {
+            spool.release();
+        }
+    }
+
+    private static class LazyDecoder extends InputStream {
+
+        private final InputStream body;
+        private final String encoding;
+        private InputStream decoded;
+
+        LazyDecoder(InputStream body, String encoding) {
+            this.body = body;
+            this.encoding = encoding;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return decoded().read();
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            return decoded().read(buffer, offset, length);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return decoded == null ? 0 : decoded.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the compressed body belongs to the response, closing it releases the connection
+            body.close();
+        }
+
+        private InputStream decoded() throws IOException {
+            if (decoded == null) decoded = decoder(encoding, body);
+            return decoded;
+        }
+    }
+
+    /**
+     * @summary Collects the bytes in memory and moves them to a temporary file once they exceed the memory limit.
+     * The file is deleted when its channel is closed.
+     */
+    private static class Spool extends OutputStream {
+
+        private ByteArrayOutputStream memory = new ByteArrayOutputStream(BUFFER_SIZE);
+        private FileChannel file;
+        private OutputStream fileOut;
+        private long size;
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[]{(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            if (file == null && size + length > SPOOL_MEMORY_LIMIT) {
+                file = FileChannel.open(Files.createTempFile("learning-orchestra-", ".gz"),
+                        StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+                fileOut = new BufferedOutputStream(Channels.newOutputStream(file), BUFFER_SIZE);
+                memory.writeTo(fileOut);
+                memory = null;
+            }
+
+            if (file == null)
+                memory.write(buffer, offset, length);
+            else
+                fileOut.write(buffer, offset, length);
+            size += length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // the file stays open to be read, the bytes only have to reach it
+            if (fileOut != null) fileOut.flush();
+        }
+
+        void release() {
+            memory = null;
+            if (file == null) return;
+            try {
+                file.close();
+            } catch (IOException exception) {
+                // TODO Auto-generated catch block
+                exception.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package implementations.util;
+
+import java.io.OutputStream;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary An output stream that discards what is written and counts the bytes, used to find the Content-Length of
+ * a body that is only known once it is written.
+ */
+class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int value) {
+        count++;
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) {
+        count += length;
+    }
+
+    long getCount() {
+        return count;
+    }
+}
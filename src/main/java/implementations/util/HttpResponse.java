@@ -0,0 +1,51 @@
+package implementations.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class HttpResponse implements Closeable {
+
+    private final int status;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    private final InputStream decodedBody;
+
+    public HttpResponse(int status, Map<String, String> headers, InputStream body) {
+        this.status = status;
+        Map<String, String> normalized = new TreeMap<>();
+        for (Map.Entry<String, String> header : headers.entrySet())
+            normalized.put(header.getKey().toLowerCase(Locale.ROOT), header.getValue());
+        this.headers = Collections.unmodifiableMap(normalized);
+        this.body = body;
+        this.decodedBody = ContentEncoding.decode(this.headers.get("content-encoding"), body);
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return the body, decompressed when the server compressed it
+     */
+    public InputStream getBody() {
+        return decodedBody;
+    }
+
+    @Override
+    public void close() throws IOException {
+        body.close();
+    }
+}
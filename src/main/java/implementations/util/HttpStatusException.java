@@ -0,0 +1,42 @@
+package implementations.util;
+
+import java.io.IOException;
+
+import com.google.gson.JsonObject;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Thrown when Learning Orchestra answers with an error status. The response, when it has a body, holds
+ * the error message in its result field.
+ */
+public class HttpStatusException extends IOException {
+
+    private static final long serialVersionUID = -2790466102530451841L;
+
+    private final int status;
+    private final transient JsonObject response;
+
+    public HttpStatusException(int status, JsonObject response) {
+        super("Learning Orchestra answered " + status
+                + (response != null ? " " + response.get(ResponseParser.RESULT) : ""));
+        this.status = status;
+        this.response = response;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public JsonObject getResponse() {
+        return response;
+    }
+
+    /**
+     * @return whether sending the same request again cannot succeed, which is the case of client errors other than
+     * request timeouts and rate limits
+     */
+    public boolean isPermanent() {
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+}
@@ -0,0 +1,35 @@
+package implementations.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This interface is responsible for moving HTTP requests between the client and the Learning Orchestra
+ * microservices. Implementations decide how connections are opened, reused and closed, this way the
+ * communication layer can be replaced without touching the dataset, datatype or projection implementations.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * @param method  is the HTTP method, for instance GET, POST, PUT, PATCH or DELETE
+     * @param url     is the complete URL of the resource
+     * @param headers represents the request headers. It can be empty, but not null.
+     * @param body    is the request body or null when the request has no body. A body of unknown length is sent
+     *                with chunked transfer encoding.
+     * @return the response of the server. The caller must close it, so the underlying connection can be reused.
+     * @throws IOException if the request cannot be sent or the response cannot be read
+     * @summary This method sends a request and returns as soon as the status line and the headers are read.
+     * The response body is read lazily from the returned object.
+     */
+    HttpResponse execute(String method, URL url, Map<String, String> headers, RequestBody body) throws IOException;
+
+    /**
+     * @summary This method releases every connection kept by the transport.
+     */
+    @Override
+    void close();
+}
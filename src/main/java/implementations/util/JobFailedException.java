@@ -0,0 +1,22 @@
+package implementations.util;
+
+import java.io.IOException;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Thrown by a polling probe when the job cannot finish anymore, for instance because its dataset does not
+ * exist. Unlike other probe errors, it stops the polling at once.
+ */
+public class JobFailedException extends IOException {
+
+    private static final long serialVersionUID = 4511207386218924466L;
+
+    public JobFailedException(String message) {
+        super(message);
+    }
+
+    public JobFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
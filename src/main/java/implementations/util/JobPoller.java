@@ -0,0 +1,148 @@
+package implementations.util;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import implementations.dataset.Result;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class tracks pending Learning Orchestra jobs. A single scheduler thread decides when each job is
+ * checked again and the checks themselves run on a small bounded pool, this way no thread sleeps on behalf of a
+ * job and thousands of jobs can be pending at the same time.
+ */
+public class JobPoller {
+
+    private static final JobPoller SHARED = new JobPoller(
+            Executors.newSingleThreadScheduledExecutor(ClientExecutors.daemonThreads("learning-orchestra-poller")),
+            ClientExecutors.requests());
+
+    private final ScheduledExecutorService scheduler;
+    private final Executor probeExecutor;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public JobPoller(ScheduledExecutorService scheduler, Executor probeExecutor) {
+        this.scheduler = scheduler;
+        this.probeExecutor = probeExecutor;
+    }
+
+    public static JobPoller shared() {
+        return SHARED;
+    }
+
+    /**
+     * @param config           is the client configuration, which also provides the polling policy
+     * @param microserviceName is the name of the microservice property, for instance microservice_dataset
+     * @param datasetName      is the dataset checked by the poller
+     * @return a future completed with the dataset metadata response once its finished flag is true, or completed
+     * exceptionally with a JobFailedException as soon as the dataset turns out not to exist
+     * @summary This method waits, without blocking a thread, until a dataset is finished.
+     */
+    public CompletableFuture<JsonObject> awaitFinished(ClientConfig config, String microserviceName,
+                                                       String datasetName) {
+        return poll(microserviceName + " " + datasetName,
+                () -> probeFinished(config, microserviceName, datasetName), PollingPolicy.from(config));
+    }
+
+    /**
+     * @param description is used in the timeout message
+     * @param probe       returns the job result when the job is done or null while it is pending. A probe that
+     *                    throws is treated as pending, so transient network errors do not fail the job, unless it
+     *                    throws a JobFailedException.
+     * @param policy      decides the delay between probes and the deadline
+     * @return a future completed with the first non null probe result, or completed exceptionally with the
+     * JobFailedException of the probe, or with a TimeoutException after the deadline. Cancelling the future stops
+     * the polling.
+     */
+    public <T> CompletableFuture<T> poll(String description, Callable<T> probe, PollingPolicy policy) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long deadline = System.currentTimeMillis() + policy.getDeadline();
+
+        pending.incrementAndGet();
+        future.whenComplete((result, error) -> pending.decrementAndGet());
+
+        schedule(future, description, probe, policy, deadline, 0);
+        return future;
+    }
+
+    public int getPendingCount() {
+        return pending.get();
+    }
+
+    private <T> void schedule(CompletableFuture<T> future, String description, Callable<T> probe,
+                              PollingPolicy policy, long deadline, int attempt) {
+        long delay = Math.min(policy.delay(attempt), Math.max(0, deadline - System.currentTimeMillis()));
+
+        scheduler.schedule(() -> probeExecutor.execute(() -> {
+            if (future.isDone()) return;
+
+            try {
+                T result = probe.call();
+                if (result != null) {
+                    future.complete(result);
+                    return;
+                }
+            } catch (JobFailedException exception) {
+                future.completeExceptionally(exception);
+                return;
+            } catch (Exception exception) {
+                // the job is still considered pending, the next probe decides
+            }
+
+            if (System.currentTimeMillis() >= deadline) {
+                future.completeExceptionally(new TimeoutException(
+                        description + " not finished after " + policy.getDeadline() + " ms"));
+                return;
+            }
+            schedule(future, description, probe, policy, deadline, attempt + 1);
+
+        }), delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the metadata response when the dataset is finished, null while it is not
+     * @throws JobFailedException if the dataset does not exist or Learning Orchestra rejects the request
+     * @throws IOException        if the request failed in a way that may not happen again, such as a server error
+     */
+    static JsonObject probeFinished(ClientConfig config, String microserviceName, String datasetName)
+            throws IOException {
+        // the probe asks whether the dataset finished since the last change, so the cache is never trusted here
+        long stamp = MetadataCache.shared().stamp();
+        JsonObject jsonObjResp;
+        try {
+            jsonObjResp = NetworkCommunication.fetch(
+                    config, datasetName + config.getSearchMetadata(), microserviceName);
+        } catch (HttpStatusException exception) {
+            if (exception.isPermanent())
+                throw new JobFailedException(microserviceName + " " + datasetName + ": " + exception.getMessage(),
+                        exception);
+            throw exception;
+        }
+        if (jsonObjResp == null) return null;
+
+        JsonElement rows = jsonObjResp.get(ResponseParser.RESULT);
+        if (!(rows instanceof JsonArray))
+            throw new JobFailedException(microserviceName + " " + datasetName + ": Learning Orchestra answered "
+                    + rows);
+        if (rows.getAsJsonArray().size() == 0)
+            throw new JobFailedException("the dataset " + datasetName + " does not exist in " + microserviceName);
+
+        Result result = JsonSerialization.toResult(rows.getAsJsonArray().get(0));
+        if (!"true".equals(result.getFinished())) return null;
+
+        MetadataCache.shared().put(microserviceName, result, stamp);
+        return jsonObjResp;
+    }
+}
@@ -0,0 +1,82 @@
+package implementations.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary The JSON wire format, the one Learning Orchestra answers with. Responses are read by ResponseParser and
+ * written by the shared Gson instance.
+ */
+public final class JsonCodec implements Codec {
+
+    public static final String MEDIA_TYPE = "application/json";
+
+    private static final int WRITER_BUFFER_SIZE = 16 * 1024;
+
+    @Override
+    public String getMediaType() {
+        return MEDIA_TYPE;
+    }
+
+    @Override
+    public JsonObject parseObject(InputStream inputStream) throws IOException {
+        return ResponseParser.parseObject(inputStream);
+    }
+
+    @Override
+    public JsonObject forEachResult(InputStream inputStream, Consumer<JsonObject> rowConsumer) throws IOException {
+        return ResponseParser.forEachResult(inputStream, rowConsumer);
+    }
+
+    @Override
+    public void write(JsonElement element, OutputStream outputStream) throws IOException {
+        JsonWriter writer = newWriter(outputStream);
+        toJson(element, writer);
+        writer.flush();
+    }
+
+    @Override
+    public ResultWriter openResults(OutputStream outputStream) throws IOException {
+        JsonWriter writer = newWriter(outputStream);
+        writer.beginObject().name(ResponseParser.RESULT).beginArray();
+
+        return new ResultWriter() {
+            @Override
+            public void write(JsonElement row) throws IOException {
+                toJson(row, writer);
+            }
+
+            @Override
+            public void close() throws IOException {
+                writer.endArray().endObject();
+                writer.close();
+            }
+        };
+    }
+
+    private static JsonWriter newWriter(OutputStream outputStream) throws IOException {
+        return JsonSerialization.gson().newJsonWriter(new BufferedWriter(
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITER_BUFFER_SIZE));
+    }
+
+    private static void toJson(JsonElement element, JsonWriter writer) throws IOException {
+        try {
+            JsonSerialization.gson().toJson(element, writer);
+        } catch (JsonIOException exception) {
+            if (exception.getCause() instanceof IOException) throw (IOException) exception.getCause();
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package implementations.util;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary A request body with a TypeAdapter registered in JsonSerialization. It is written straight from its
+ * fields, without building a JSON tree first.
+ */
+public interface JsonRequest {
+
+    /**
+     * @return the dataset the request is about, also the last segment of the URL when the route uses it
+     */
+    String getDatasetName();
+
+    /**
+     * @return the number of values of the body, it decides whether the body is streamed
+     */
+    int getValueCount();
+}
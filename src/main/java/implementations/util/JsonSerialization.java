@@ -0,0 +1,360 @@
+package implementations.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import implementations.dataset.DatasetRequest;
+import implementations.dataset.Result;
+import implementations.transform.datatype.TypeChangeRequest;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class holds the Gson instance shared by the client. Gson is thread safe and caches its type
+ * adapters, so building one per call throws that work away. The metadata model and the request DTOs are read and
+ * written by hand written adapters, this way no reflection happens while parsing responses or writing requests.
+ */
+public final class JsonSerialization {
+
+    // request bodies with more values than this are streamed instead of encoded at once
+    private static final int STREAMING_THRESHOLD = 1024;
+    private static final int WRITER_BUFFER_SIZE = 8 * 1024;
+
+    private static final TypeAdapter<Result> RESULT_ADAPTER = new ResultAdapter().nullSafe();
+
+    private static final Gson GSON = new GsonBuilder()
+            .registerTypeAdapter(Result.class, RESULT_ADAPTER)
+            .registerTypeAdapter(DatasetRequest.class, new DatasetRequestAdapter().nullSafe())
+            .registerTypeAdapter(TypeChangeRequest.class, new TypeChangeRequestAdapter().nullSafe())
+            .disableHtmlEscaping()
+            .create();
+
+    private JsonSerialization() {
+    }
+
+    public static Gson gson() {
+        return GSON;
+    }
+
+    /**
+     * @param row is a metadata row of a Learning Orchestra response
+     * @return the row as a Result, or null when the row is null
+     */
+    public static Result toResult(JsonElement row) {
+        return RESULT_ADAPTER.fromJsonTree(row);
+    }
+
+    public static List<Result> toResults(JsonArray rows) {
+        List<Result> results = new ArrayList<>(rows.size());
+        for (JsonElement row : rows)
+            results.add(RESULT_ADAPTER.fromJsonTree(row));
+        return results;
+    }
+
+    public static JsonElement toJsonTree(Result result) {
+        return RESULT_ADAPTER.toJsonTree(result);
+    }
+
+    /**
+     * @param types maps a field name to its new type
+     * @return the types entries of a datatype request, one {"key": field, "value": type} object per field
+     */
+    public static JsonArray types(Map<String, String> types) {
+        JsonArray array = new JsonArray();
+        for (Map.Entry<String, String> type : types.entrySet()) {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("key", type.getKey());
+            entry.addProperty("value", type.getValue());
+            array.add(entry);
+        }
+        return array;
+    }
+
+    /**
+     * @return the UTF-8 encoded request body
+     */
+    public static byte[] toBytes(JsonElement element) {
+        // small bodies only, an OutputStreamWriter would allocate a larger encoder buffer than the body
+        return GSON.toJson(element).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the element as a request body. Most bodies hold a few values and are encoded at once. Larger ones,
+     * such as value maps or type arrays of thousands of fields, are written by a JsonWriter straight to the
+     * connection, so neither a string nor a byte array of the whole body is built.
+     */
+    public static RequestBody toRequestBody(JsonElement element) {
+        if (exceedsValues(element, STREAMING_THRESHOLD, new int[1]))
+            return new StreamingBody(element);
+        return RequestBody.of(toBytes(element));
+    }
+
+    /**
+     * @return the request as a body, written by its adapter and streamed like the elements of the same size
+     */
+    public static RequestBody toRequestBody(JsonRequest request) {
+        if (request.getValueCount() > STREAMING_THRESHOLD)
+            return new StreamingBody(request);
+        return RequestBody.of(GSON.toJson(request).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param counted is the number of values seen so far, shared by the recursive calls
+     * @return whether the element holds more than limit primitive values, without walking past the limit
+     */
+    private static boolean exceedsValues(JsonElement element, int limit, int[] counted) {
+        if (element.isJsonObject()) {
+            for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+                if (exceedsValues(member.getValue(), limit, counted)) return true;
+            }
+            return false;
+        }
+        if (element.isJsonArray()) {
+            for (JsonElement item : element.getAsJsonArray()) {
+                if (exceedsValues(item, limit, counted)) return true;
+            }
+            return false;
+        }
+        return ++counted[0] > limit;
+    }
+
+    /**
+     * @summary A body serialized while it is sent. It is sent with a Content-Length header, because WSGI servers
+     * such as the ones of Learning Orchestra often ignore chunked request bodies, and the length is found by
+     * serializing the element once into a byte counter. The memory stays the same whatever the size of the body.
+     */
+    private static class StreamingBody implements RequestBody {
+
+        private final Object value;
+        private long contentLength = -1;
+
+        StreamingBody(Object value) {
+            this.value = value;
+        }
+
+        @Override
+        public synchronized long contentLength() {
+            if (contentLength < 0) {
+                CountingOutputStream counter = new CountingOutputStream();
+                try {
+                    writeTo(counter);
+                } catch (IOException exception) {
+                    // the counter never fails
+                    throw new IllegalStateException(exception);
+                }
+                contentLength = counter.getCount();
+            }
+            return contentLength;
+        }
+
+        @Override
+        public void writeTo(OutputStream outputStream) throws IOException {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8),
+                    WRITER_BUFFER_SIZE);
+            JsonWriter jsonWriter = GSON.newJsonWriter(writer);
+            try {
+                GSON.toJson(value, value.getClass(), jsonWriter);
+            } catch (JsonIOException exception) {
+                if (exception.getCause() instanceof IOException) throw (IOException) exception.getCause();
+                throw exception;
+            }
+            // flushed but not closed, the output stream is the connection
+            jsonWriter.flush();
+        }
+    }
+
+    private static class DatasetRequestAdapter extends TypeAdapter<DatasetRequest> {
+
+        @Override
+        public void write(JsonWriter writer, DatasetRequest request) throws IOException {
+            writer.beginObject();
+            writer.name("datasetName").value(request.getDatasetName());
+            writer.name("datasetURI").value(request.getDatasetURI());
+            writer.endObject();
+        }
+
+        @Override
+        public DatasetRequest read(JsonReader reader) throws IOException {
+            String datasetName = null;
+            String datasetURI = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "datasetName":
+                        datasetName = ResultAdapter.readString(reader);
+                        break;
+                    case "datasetURI":
+                        datasetURI = ResultAdapter.readString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new DatasetRequest(datasetName, datasetURI);
+        }
+    }
+
+    private static class TypeChangeRequestAdapter extends TypeAdapter<TypeChangeRequest> {
+
+        @Override
+        public void write(JsonWriter writer, TypeChangeRequest request) throws IOException {
+            writer.beginObject();
+            writer.name("datasetName").value(request.getDatasetName());
+            writer.name("types").beginArray();
+            for (Map.Entry<String, String> type : request.getTypes().entrySet()) {
+                writer.beginObject();
+                writer.name("key").value(type.getKey());
+                writer.name("value").value(type.getValue());
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+
+        @Override
+        public TypeChangeRequest read(JsonReader reader) throws IOException {
+            String datasetName = null;
+            Map<String, String> types = new LinkedHashMap<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "datasetName":
+                        datasetName = ResultAdapter.readString(reader);
+                        break;
+                    case "types":
+                        readTypes(reader, types);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new TypeChangeRequest(datasetName, types);
+        }
+
+        private static void readTypes(JsonReader reader, Map<String, String> types) throws IOException {
+            reader.beginArray();
+            while (reader.hasNext()) {
+                String key = null;
+                String value = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    switch (reader.nextName()) {
+                        case "key":
+                            key = ResultAdapter.readString(reader);
+                            break;
+                        case "value":
+                            value = ResultAdapter.readString(reader);
+                            break;
+                        default:
+                            reader.skipValue();
+                    }
+                }
+                reader.endObject();
+                if (key != null) types.put(key, value);
+            }
+            reader.endArray();
+        }
+    }
+
+    private static class ResultAdapter extends TypeAdapter<Result> {
+
+        @Override
+        public void write(JsonWriter writer, Result result) throws IOException {
+            writer.beginObject();
+            writer.name("datasetName").value(result.getDatasetName());
+            if (result.getFields() != null) {
+                writer.name("fields").beginArray();
+                for (String field : result.getFields())
+                    writer.value(field);
+                writer.endArray();
+            }
+            writer.name("finished").value(result.getFinished());
+            writer.name("timeCreated").value(result.getTimeCreated());
+            writer.name("type").value(result.getType());
+            writer.name("url").value(result.getUrl());
+            writer.endObject();
+        }
+
+        @Override
+        public Result read(JsonReader reader) throws IOException {
+            Result result = new Result();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "datasetName":
+                        result.setDatasetName(readString(reader));
+                        break;
+                    case "fields":
+                        result.setFields(readStrings(reader));
+                        break;
+                    case "finished":
+                        result.setFinished(readString(reader));
+                        break;
+                    case "timeCreated":
+                        result.setTimeCreated(readString(reader));
+                        break;
+                    case "type":
+                        result.setType(readString(reader));
+                        break;
+                    case "url":
+                        result.setUrl(readString(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return result;
+        }
+
+        private static String readString(JsonReader reader) throws IOException {
+            switch (reader.peek()) {
+                case NULL:
+                    reader.nextNull();
+                    return null;
+                case BOOLEAN:
+                    return Boolean.toString(reader.nextBoolean());
+                case STRING:
+                case NUMBER:
+                    return reader.nextString();
+                default:
+                    reader.skipValue();
+                    return null;
+            }
+        }
+
+        private static List<String> readStrings(JsonReader reader) throws IOException {
+            if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+                reader.skipValue();
+                return null;
+            }
+            List<String> strings = new ArrayList<>();
+            reader.beginArray();
+            while (reader.hasNext())
+                strings.add(readString(reader));
+            reader.endArray();
+            return strings;
+        }
+    }
+}
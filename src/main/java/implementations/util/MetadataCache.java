@@ -0,0 +1,210 @@
+package implementations.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import implementations.dataset.Result;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class keeps the metadata of finished datasets, keyed by microservice and dataset name. Only
+ * finished datasets are cached because their metadata no longer changes, unless the client itself updates or
+ * deletes them, which invalidates the entry. Entries expire after a time to live and the least recently used
+ * entry is evicted when the cache is full. Callers get copies, so a caller changing its metadata does not change
+ * what the others see. A lookup takes a stamp before its request and hands it to put, this way the answer of a
+ * lookup that was in flight when the dataset was invalidated is not cached.
+ */
+public class MetadataCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+
+    private static final MetadataCache SHARED = new MetadataCache(DEFAULT_MAX_ENTRIES, DEFAULT_TIME_TO_LIVE);
+
+    private final int maxEntries;
+    private final long timeToLiveNanos;
+    private final LinkedHashMap<String, CachedResult> entries;
+    private final LinkedHashMap<String, Long> invalidations;
+    private long generation;
+    private long forgottenGeneration;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public MetadataCache(int maxEntries, long timeToLive) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive");
+        if (timeToLive < 1) throw new IllegalArgumentException("timeToLive must be positive");
+
+        this.maxEntries = maxEntries;
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+        this.entries = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+            private static final long serialVersionUID = -3541218307651230815L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                if (size() <= MetadataCache.this.maxEntries) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+        this.invalidations = new LinkedHashMap<String, Long>(16, 0.75f, false) {
+            private static final long serialVersionUID = 2286532893717931760L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() <= MetadataCache.this.maxEntries) return false;
+                // a stamp older than a forgotten invalidation is refused for every dataset, which is only slower
+                forgottenGeneration = Math.max(forgottenGeneration, eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public static MetadataCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * @return the cached metadata or null if the dataset is not cached or its entry expired
+     */
+    public Result get(String microserviceName, String datasetName) {
+        String key = key(microserviceName, datasetName);
+        synchronized (entries) {
+            CachedResult entry = entries.get(key);
+            if (entry != null && System.nanoTime() - entry.createdAt < timeToLiveNanos) {
+                hits.incrementAndGet();
+                return copy(entry.result);
+            }
+            if (entry != null) entries.remove(key);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * @return the stamp of a lookup, taken before its request is sent
+     */
+    public long stamp() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * @param stamp is the stamp taken before the request that read the metadata
+     * @summary Stores a copy of the metadata when the dataset is finished. Pending datasets are ignored, and so is
+     * metadata read before the last invalidation of its dataset.
+     */
+    public void put(String microserviceName, Result result, long stamp) {
+        if (result == null || result.getDatasetName() == null || !"true".equals(result.getFinished()))
+            return;
+
+        synchronized (entries) {
+            Long invalidated = invalidations.get(result.getDatasetName());
+            if (stamp < forgottenGeneration || invalidated != null && stamp < invalidated) return;
+
+            entries.put(key(microserviceName, result.getDatasetName()),
+                    new CachedResult(copy(result), System.nanoTime()));
+        }
+    }
+
+    public void invalidate(String microserviceName, String datasetName) {
+        synchronized (entries) {
+            entries.remove(key(microserviceName, datasetName));
+            invalidated(datasetName);
+        }
+    }
+
+    /**
+     * @summary Removes the dataset from every microservice, because a change made by one microservice, for
+     * instance a type change, also changes the metadata seen by the others.
+     */
+    public void invalidate(String datasetName) {
+        String suffix = '\u0000' + datasetName;
+        synchronized (entries) {
+            Iterator<String> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().endsWith(suffix))
+                    keys.remove();
+            }
+            invalidated(datasetName);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+            invalidations.clear();
+            forgottenGeneration = ++generation;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    /**
+     * @summary Records the generation of the invalidation, moved last so the oldest invalidations are forgotten
+     * first.
+     */
+    private void invalidated(String datasetName) {
+        invalidations.remove(datasetName);
+        invalidations.put(datasetName, ++generation);
+    }
+
+    private static Result copy(Result result) {
+        Result copy = new Result();
+        copy.setDatasetName(result.getDatasetName());
+        copy.setFields(result.getFields() == null ? null : new ArrayList<>(result.getFields()));
+        copy.setFinished(result.getFinished());
+        copy.setTimeCreated(result.getTimeCreated());
+        copy.setType(result.getType());
+        copy.setUrl(result.getUrl());
+        return copy;
+    }
+
+    private static String key(String microserviceName, String datasetName) {
+        return microserviceName + '\u0000' + datasetName;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MetadataCache[size=%d, hits=%d, misses=%d, evictions=%d]",
+                size(), getHitCount(), getMissCount(), getEvictionCount());
+    }
+
+    private static class CachedResult {
+
+        private final Result result;
+        private final long createdAt;
+
+        CachedResult(Result result, long createdAt) {
+            this.result = result;
+            this.createdAt = createdAt;
+        }
+    }
+}
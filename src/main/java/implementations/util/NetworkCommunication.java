@@ -1,79 +1,104 @@
 package implementations.util;
 
-import java.io.BufferedReader;
-import java.io.FileInputStream;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.lang.reflect.Type;
-import java.net.HttpURLConnection;
+import java.io.IOException;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Properties;
-
-import com.google.gson.Gson;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.reflect.TypeToken;
-
-import implementations.dataset.Result;
 
 public class NetworkCommunication {
 
-    public static JsonObject jsonRequest(String method, String microserviceName,
-                                         boolean usesDatasetName, JsonObject jsonArgs) {
-        HttpURLConnection connection;
+    private static volatile HttpTransport transport = new PooledHttpTransport();
 
-        try {
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
+    public static HttpTransport getTransport() {
+        return transport;
+    }
 
-            String address = properties.getProperty("address");
-            String microService;
+    public static void setTransport(HttpTransport newTransport) {
+        if (newTransport == null) throw new IllegalArgumentException("transport must not be null");
+        HttpTransport oldTransport = transport;
+        transport = newTransport;
+        if (oldTransport != newTransport)
+            oldTransport.close();
+    }
 
-            if (!usesDatasetName)
-                microService = properties.getProperty(microserviceName);
-            else
-                microService = properties.getProperty(microserviceName + jsonArgs.get("datasetName"));
+    public static JsonObject jsonRequest(ClientConfig config, String method, String microserviceName,
+                                         boolean usesDatasetName, JsonObject jsonArgs) {
+        try {
+            return sendJson(config, method, microserviceName, usesDatasetName, jsonArgs);
 
-            URL url = new URL(address + microService);
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
 
-            connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod(method);
-            connection.setRequestProperty("Content-Type", "application/json");
+    public static CompletableFuture<JsonObject> jsonRequestAsync(ClientConfig config, String method,
+                                                                 String microserviceName, boolean usesDatasetName,
+                                                                 JsonObject jsonArgs) {
+        return supplyRequest(() -> sendJson(config, method, microserviceName, usesDatasetName, jsonArgs));
+    }
 
-            connection.setUseCaches(false);
-            connection.setDoInput(true);
-            connection.setDoOutput(true);
+    public static JsonObject jsonRequest(ClientConfig config, String method, String microserviceName,
+                                         boolean usesDatasetName, JsonRequest request) {
+        try {
+            return sendJson(config, method, microserviceName, usesDatasetName, request);
 
-            connection.connect();
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
 
-            Gson gson = new Gson();
-            String json = gson.toJson(jsonArgs);
+    public static CompletableFuture<JsonObject> jsonRequestAsync(ClientConfig config, String method,
+                                                                 String microserviceName, boolean usesDatasetName,
+                                                                 JsonRequest request) {
+        return supplyRequest(() -> sendJson(config, method, microserviceName, usesDatasetName, request));
+    }
 
-            OutputStream os = connection.getOutputStream();
-            OutputStreamWriter osw = new OutputStreamWriter(os, StandardCharsets.UTF_8);
-            osw.write(json);
-            osw.flush();
+    public static CompletableFuture<JsonObject> confirmRequestAsync(ClientConfig config, String operation,
+                                                                    String method, String microserviceName) {
+        return supplyRequest(() -> {
+            JsonArray rows = new JsonArray();
+            return withRows(send(config, operation, method, microserviceName, rows::add), rows);
+        });
+    }
 
-            InputStream inputStream = connection.getInputStream();
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-            BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
-            StringBuilder stringBuilder = new StringBuilder();
-            String line;
+    /**
+     * @summary Completes with the response itself, unless the response is the URL of a job still running in
+     * Learning Orchestra. In that case it completes with the dataset metadata once the job is finished.
+     */
+    public static CompletableFuture<JsonObject> awaitIfPending(ClientConfig config, String microserviceName,
+                                                               String datasetName, JsonObject response) {
+        if (isPending(config, response))
+            return JobPoller.shared().awaitFinished(config, microserviceName, datasetName);
+        return CompletableFuture.completedFuture(response);
+    }
 
-            while ((line = bufferedReader.readLine()) != null) {
-                stringBuilder.append(line);
-            }
+    /**
+     * @return whether the response is the URL of a job still running in Learning Orchestra
+     */
+    public static boolean isPending(ClientConfig config, JsonObject response) {
+        JsonElement result = response == null ? null : response.get(ResponseParser.RESULT);
+        return result != null && result.isJsonPrimitive()
+                && result.getAsString().endsWith(config.getSearchContent());
+    }
 
-            JsonObject jsonObj = gson.fromJson(stringBuilder.toString(), JsonObject.class);
-            osw.close();
-            bufferedReader.close();
-            inputStreamReader.close();
-            return jsonObj;
+    public static JsonObject confirmAsync(ClientConfig config, String microserviceName, String databaseName) {
+        try {
+            return JobPoller.shared().awaitFinished(config, microserviceName, databaseName).get();
 
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
         } catch (Exception exception) {
             // TODO Auto-generated catch block
             exception.printStackTrace();
@@ -81,70 +106,139 @@ public class NetworkCommunication {
         }
     }
 
-    public static JsonObject confirmAsync(String address, String microservice,
-                                          String microserviceName, String databaseName,
-                                          String searchMetadata, JsonObject jsonObject, int sleep) {
+    public static JsonObject confirm(ClientConfig config, String operation, String method,
+                                     String microserviceName) {
+        JsonArray rows = new JsonArray();
+        return withRows(confirm(config, operation, method, microserviceName, rows::add), rows);
+    }
+
+    public static JsonObject confirm(ClientConfig config, String operation, String method,
+                                     String microserviceName, Consumer<JsonObject> rowConsumer) {
         try {
-            String response = "false";
+            return send(config, operation, method, microserviceName, rowConsumer);
 
-            while (response.equals("false")) {
-                Thread.sleep(sleep);
+        } catch (Exception exception) {
+            // TODO Auto-generated catch block
+            exception.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * @summary Sends a GET request and hands the response body to the decoder, without parsing it into JSON
+     * objects first. The decoders read JSON text, so JSON is the only format accepted.
+     */
+    public static <T> T read(ClientConfig config, String operation, String microserviceName,
+                             ResponseDecoder<T> decoder) throws IOException {
+        URL url = config.url(microserviceName, operation);
+
+        try (HttpResponse response = transport.execute("GET", url, jsonHeaders(config), null)) {
+            return decoder.decode(response.getBody());
+        }
+    }
+
+    /**
+     * @return the parsed response of a GET request, or null if the body is empty. Unlike confirm, errors are thrown
+     * to the caller instead of being printed.
+     * @throws HttpStatusException if Learning Orchestra answers with an error status
+     */
+    public static JsonObject fetch(ClientConfig config, String operation, String microserviceName)
+            throws IOException {
+        URL url = config.url(microserviceName, operation);
+
+        try (HttpResponse response = transport.execute("GET", url, acceptHeaders(config), null)) {
+            JsonObject jsonObj = Codecs.forResponse(response).parseObject(response.getBody());
+            if (response.getStatus() >= 400) throw new HttpStatusException(response.getStatus(), jsonObj);
+            return jsonObj;
+        }
+    }
 
-                JsonObject jsonObjResp = confirm(
-                        databaseName + searchMetadata, "GET", microserviceName);
+    public static ResultIterator openResults(ClientConfig config, String operation,
+                                             String microserviceName) throws IOException {
+        URL url = config.url(microserviceName, operation);
+        return new ResultIterator(transport.execute("GET", url, jsonHeaders(config), null));
+    }
 
-                Type listType = new TypeToken<ArrayList<Result>>() {}.getType();
+    private static JsonObject sendJson(ClientConfig config, String method, String microserviceName,
+                                       boolean usesDatasetName, JsonObject jsonArgs) throws IOException {
+        String resource = usesDatasetName ? jsonArgs.get("datasetName").getAsString() : "";
+        return sendJson(config, method, config.url(microserviceName, resource),
+                JsonSerialization.toRequestBody(jsonArgs));
+    }
+
+    private static JsonObject sendJson(ClientConfig config, String method, String microserviceName,
+                                       boolean usesDatasetName, JsonRequest request) throws IOException {
+        String resource = usesDatasetName ? request.getDatasetName() : "";
+        return sendJson(config, method, config.url(microserviceName, resource),
+                JsonSerialization.toRequestBody(request));
+    }
 
-                Gson gson = new Gson();
-                if (jsonObjResp == null) throw new AssertionError();
-                List<Result> results = gson.fromJson(
-                        jsonObjResp.getAsJsonArray("result"), listType);
-                Result result = results.get(0);
-                response = result.getFinished();
+    private static JsonObject sendJson(ClientConfig config, String method, URL url, RequestBody body)
+            throws IOException {
+        Map<String, String> headers = jsonHeaders(config);
+        headers.put("Content-Type", JsonCodec.MEDIA_TYPE);
 
-                if (response.equals("true")) jsonObject = jsonObjResp;
+        int threshold = config.getRequestCompressionThreshold();
+        if (threshold >= 0 && body.contentLength() > threshold) {
+            try (ContentEncoding.SpooledBody compressed = ContentEncoding.gzip(body)) {
+                headers.put("Content-Encoding", ContentEncoding.GZIP);
+                return sendJson(method, url, headers, compressed);
             }
-            return jsonObject;
+        }
+        return sendJson(method, url, headers, body);
+    }
 
-        } catch (Exception exception) {
-            // TODO Auto-generated catch block
-            exception.printStackTrace();
-            return null;
+    private static JsonObject sendJson(String method, URL url, Map<String, String> headers, RequestBody body)
+            throws IOException {
+        try (HttpResponse response = transport.execute(method, url, headers, body)) {
+            return Codecs.forResponse(response).parseObject(response.getBody());
         }
     }
 
-    public static JsonObject confirm(String operation, String method, String microserviceName) {
-        try {
-            Properties properties = new Properties();
-            properties.load(new FileInputStream("config.properties"));
-
-            String address = properties.getProperty("address");
-            String microService = properties.getProperty(microserviceName);
-
-            HttpURLConnection connection =
-                    (HttpURLConnection) new URL(address + microService + operation).openConnection();
-            connection.setRequestProperty("Accept-Charset", "UTF-8");
-            connection.setRequestMethod(method);
-            connection.connect();
-
-            InputStream inputStream = connection.getInputStream();
-            InputStreamReader inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-            BufferedReader bufferedReader = new BufferedReader(inputStreamReader);
-            StringBuilder stringBuilder = new StringBuilder();
-            String line;
-
-            while ((line = bufferedReader.readLine()) != null) {
-                stringBuilder.append(line);
+    private static JsonObject send(ClientConfig config, String operation, String method,
+                                   String microserviceName, Consumer<JsonObject> rowConsumer) throws IOException {
+        URL url = config.url(microserviceName, operation);
+
+        // only searches may be answered in the configured format, the other answers are short messages
+        Map<String, String> headers = "GET".equals(method) ? acceptHeaders(config) : jsonHeaders(config);
+        try (HttpResponse response = transport.execute(method, url, headers, null)) {
+            return Codecs.forResponse(response).forEachResult(response.getBody(), rowConsumer);
+        }
+    }
+
+    public static JsonObject withRows(JsonObject jsonObj, JsonArray rows) {
+        if (jsonObj != null && jsonObj.get(ResponseParser.RESULT) instanceof JsonArray)
+            jsonObj.add(ResponseParser.RESULT, rows);
+        return jsonObj;
+    }
+
+    private static CompletableFuture<JsonObject> supplyRequest(Request request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                JsonObject jsonObj = request.send();
+                if (jsonObj == null) throw new IOException("empty response from Learning Orchestra");
+                return jsonObj;
+            } catch (IOException exception) {
+                throw new CompletionException(exception);
             }
+        }, ClientExecutors.requests());
+    }
 
-            Gson gson = new Gson();
+    private static Map<String, String> acceptHeaders(ClientConfig config) {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Accept-Charset", "UTF-8");
+        headers.put("Accept-Encoding", config.getAcceptEncoding());
+        headers.put("Accept", config.getAccept());
+        return headers;
+    }
 
-            return gson.fromJson(stringBuilder.toString(), JsonObject.class);
+    private static Map<String, String> jsonHeaders(ClientConfig config) {
+        Map<String, String> headers = acceptHeaders(config);
+        headers.put("Accept", JsonCodec.MEDIA_TYPE);
+        return headers;
+    }
 
-        } catch (Exception exception) {
-            // TODO Auto-generated catch block
-            exception.printStackTrace();
-            return null;
-        }
+    private interface Request {
+        JsonObject send() throws IOException;
     }
 }
@@ -0,0 +1,87 @@
+package implementations.util;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class describes how often a pending job is checked. The first probes are fast, then the delay grows
+ * exponentially up to maxDelay. Every delay is spread by a random jitter, this way jobs submitted together do not
+ * poll the server together. A job still pending after the deadline fails.
+ */
+public final class PollingPolicy {
+
+    public static final String POLL_INITIAL_DELAY = "poll_initial_delay";
+    public static final String POLL_MAX_DELAY = "poll_max_delay";
+    public static final String POLL_MULTIPLIER = "poll_multiplier";
+    public static final String POLL_JITTER = "poll_jitter";
+    public static final String POLL_DEADLINE = "poll_deadline";
+
+    private final long initialDelay;
+    private final long maxDelay;
+    private final double multiplier;
+    private final double jitter;
+    private final long deadline;
+
+    public PollingPolicy(long initialDelay, long maxDelay, double multiplier, double jitter, long deadline) {
+        if (initialDelay < 0 || maxDelay < initialDelay)
+            throw new IllegalArgumentException("delays must satisfy 0 <= initialDelay <= maxDelay");
+        if (multiplier < 1)
+            throw new IllegalArgumentException("multiplier must be at least 1");
+        if (jitter < 0 || jitter >= 1)
+            throw new IllegalArgumentException("jitter must be in [0, 1)");
+        if (deadline <= 0)
+            throw new IllegalArgumentException("deadline must be positive");
+
+        this.initialDelay = initialDelay;
+        this.maxDelay = maxDelay;
+        this.multiplier = multiplier;
+        this.jitter = jitter;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @param config is the client configuration
+     * @return the policy described by the poll_* properties. The wait_time property is the default maximum delay.
+     */
+    public static PollingPolicy from(ClientConfig config) {
+        long maxDelay = config.getInt(POLL_MAX_DELAY, config.getWaitTime());
+        long initialDelay = Math.min(config.getInt(POLL_INITIAL_DELAY, 100), maxDelay);
+        double multiplier = Double.parseDouble(config.getProperty(POLL_MULTIPLIER, "2"));
+        double jitter = Double.parseDouble(config.getProperty(POLL_JITTER, "0.2"));
+        long deadline = config.getInt(POLL_DEADLINE, 3600000);
+        return new PollingPolicy(initialDelay, maxDelay, multiplier, jitter, deadline);
+    }
+
+    /**
+     * @param attempt is the number of probes already made, starting at zero
+     * @return the delay in milliseconds before the next probe
+     */
+    public long delay(int attempt) {
+        double delay = initialDelay * Math.pow(multiplier, attempt);
+        delay = Math.min(delay, maxDelay);
+        if (jitter > 0)
+            delay *= 1 - jitter + 2 * jitter * ThreadLocalRandom.current().nextDouble();
+        return Math.max(0, Math.round(delay));
+    }
+
+    public long getInitialDelay() {
+        return initialDelay;
+    }
+
+    public long getMaxDelay() {
+        return maxDelay;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public double getJitter() {
+        return jitter;
+    }
+
+    public long getDeadline() {
+        return deadline;
+    }
+}
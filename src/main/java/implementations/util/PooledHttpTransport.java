@@ -0,0 +1,655 @@
+package implementations.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This transport speaks HTTP/1.1 over a bounded pool of keep-alive sockets per host. At most
+ * maxConnectionsPerHost requests are in flight for a host at the same time, the remaining callers wait for a free
+ * slot. A connection goes back to the pool only when its response body was completely read, and connections idle
+ * for longer than idleTimeout are closed by a background sweeper.
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 16;
+    public static final long DEFAULT_IDLE_TIMEOUT = 30000;
+    public static final int DEFAULT_CONNECT_TIMEOUT = 30000;
+    public static final int DEFAULT_READ_TIMEOUT = 120000;
+
+    private static final int DRAIN_LIMIT = 64 * 1024;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final String UNSAFE_CHARACTERS = "\"<>\\^`{|}";
+    private static final byte[] CRLF = {'\r', '\n'};
+
+    private final int maxConnectionsPerHost;
+    private final long idleTimeout;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final ConcurrentMap<String, HostPool> pools = new ConcurrentHashMap<>();
+    private final AtomicLong openedConnections = new AtomicLong();
+    private final ScheduledExecutorService sweeper;
+    private volatile boolean closed;
+
+    public PooledHttpTransport() {
+        this(DEFAULT_MAX_CONNECTIONS_PER_HOST, DEFAULT_IDLE_TIMEOUT,
+                DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    public PooledHttpTransport(int maxConnectionsPerHost, long idleTimeout,
+                               int connectTimeout, int readTimeout) {
+        if (maxConnectionsPerHost < 1)
+            throw new IllegalArgumentException("maxConnectionsPerHost must be positive");
+        if (idleTimeout < 1)
+            throw new IllegalArgumentException("idleTimeout must be positive");
+
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        this.idleTimeout = idleTimeout;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(
+                ClientExecutors.daemonThreads("learning-orchestra-pool-sweeper"));
+        this.sweeper.scheduleWithFixedDelay(this::evictIdleConnections,
+                idleTimeout, idleTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public HttpResponse execute(String method, URL url, Map<String, String> headers, RequestBody body)
+            throws IOException {
+        if (closed) throw new IOException("transport is closed");
+
+        String protocol = url.getProtocol();
+        if (!"http".equals(protocol) && !"https".equals(protocol))
+            throw new IOException("unsupported protocol " + protocol);
+
+        HostPool pool = pools.computeIfAbsent(poolKey(url), key -> new HostPool(maxConnectionsPerHost));
+        pool.acquire();
+
+        Connection connection = null;
+        try {
+            connection = pool.pollIdle(idleTimeout);
+            boolean reused = connection != null;
+            if (!reused) connection = open(url);
+
+            try {
+                return exchange(connection, pool, method, url, headers, body);
+            } catch (StaleConnectionException stale) {
+                if (!reused) throw stale;
+
+                // the server closed the idle connection before we used it. Either the request was not completely
+                // sent, or it is idempotent and no byte of response came back, so sending it again is safe.
+                connection.closeQuietly();
+                connection = null;
+                connection = open(url);
+                return exchange(connection, pool, method, url, headers, body);
+            }
+
+        } catch (IOException | RuntimeException exception) {
+            if (connection != null) connection.closeQuietly();
+            pool.release();
+            throw exception;
+        }
+    }
+
+    public int evictIdleConnections() {
+        int evicted = 0;
+        for (HostPool pool : pools.values())
+            evicted += pool.evict(idleTimeout);
+        return evicted;
+    }
+
+    public int getIdleConnectionCount() {
+        int idle = 0;
+        for (HostPool pool : pools.values())
+            idle += pool.idleCount();
+        return idle;
+    }
+
+    public long getOpenedConnectionCount() {
+        return openedConnections.get();
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return maxConnectionsPerHost;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        sweeper.shutdownNow();
+        for (HostPool pool : pools.values())
+            pool.closeAll();
+        pools.clear();
+    }
+
+    private Connection open(URL url) throws IOException {
+        String host = url.getHost();
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), connectTimeout);
+
+            if ("https".equals(url.getProtocol())) {
+                SSLSocketFactory factory = (SSLSocketFactory) SSLSocketFactory.getDefault();
+                SSLSocket sslSocket = (SSLSocket) factory.createSocket(socket, host, port, true);
+                SSLParameters parameters = sslSocket.getSSLParameters();
+                parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                sslSocket.setSSLParameters(parameters);
+                sslSocket.startHandshake();
+                socket = sslSocket;
+            }
+
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.setSoTimeout(readTimeout);
+            openedConnections.incrementAndGet();
+            return new Connection(socket);
+
+        } catch (IOException exception) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // the connection attempt already failed
+            }
+            throw exception;
+        }
+    }
+
+    private HttpResponse exchange(Connection connection, HostPool pool, String method, URL url,
+                                  Map<String, String> headers, RequestBody body) throws IOException {
+        StringBuilder head = new StringBuilder();
+        head.append(method).append(' ').append(requestTarget(url)).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(hostHeader(url)).append("\r\n");
+        head.append("Connection: keep-alive\r\n");
+
+        for (Map.Entry<String, String> header : headers.entrySet())
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+
+        boolean chunked = body != null && body.contentLength() < 0;
+        if (chunked)
+            head.append("Transfer-Encoding: chunked\r\n");
+        else if (body != null)
+            head.append("Content-Length: ").append(body.contentLength()).append("\r\n");
+        head.append("\r\n");
+
+        try {
+            connection.out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+            if (chunked) {
+                ChunkedOutputStream chunks = new ChunkedOutputStream(connection.out);
+                body.writeTo(chunks);
+                chunks.finish();
+            } else if (body != null) {
+                body.writeTo(connection.out);
+            }
+            connection.out.flush();
+        } catch (IOException exception) {
+            // an incomplete request cannot have been processed by the server
+            throw new StaleConnectionException(exception);
+        }
+
+        // once the request is sent the server may have processed it, so only requests that can run twice are
+        // retried, and only when the connection broke before the status line
+        boolean idempotent = "GET".equals(method) || "HEAD".equals(method);
+        String statusLine;
+        int status;
+        Map<String, String> responseHeaders;
+        boolean firstLine = true;
+        do {
+            try {
+                statusLine = readLine(connection.in);
+            } catch (SocketTimeoutException timeout) {
+                throw timeout;
+            } catch (IOException exception) {
+                if (firstLine && idempotent) throw new StaleConnectionException(exception);
+                throw exception;
+            }
+            if (statusLine == null) {
+                EOFException closed = new EOFException("connection closed before the status line");
+                if (firstLine && idempotent) throw new StaleConnectionException(closed);
+                throw closed;
+            }
+            firstLine = false;
+
+            status = parseStatus(statusLine);
+            responseHeaders = readHeaders(connection.in);
+        } while (status == 100);
+
+        boolean keepAlive = isKeepAlive(statusLine, responseHeaders.get("connection"));
+        String transferEncoding = responseHeaders.get("transfer-encoding");
+        String contentLength = responseHeaders.get("content-length");
+
+        InputStream content;
+        if ("HEAD".equals(method) || status == 204 || status == 304 || (status >= 100 && status < 200)) {
+            content = new FixedLengthInputStream(connection.in, 0);
+        } else if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            content = new ChunkedInputStream(connection.in);
+        } else if (contentLength != null) {
+            content = new FixedLengthInputStream(connection.in, Long.parseLong(contentLength.trim()));
+        } else {
+            content = connection.in;
+            keepAlive = false;
+        }
+
+        return new HttpResponse(status, responseHeaders,
+                new ResponseBody(content, connection, pool, keepAlive));
+    }
+
+    private static String poolKey(URL url) {
+        int port = url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+        return url.getProtocol() + "://" + url.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    static String requestTarget(URL url) {
+        String file = url.getFile();
+        if (file.isEmpty()) return "/";
+
+        // query strings such as ?query={} are built by hand, so characters that are not allowed in a
+        // request line are escaped here instead of at every call site
+        StringBuilder target = new StringBuilder(file.length() + 16);
+        for (int index = 0; index < file.length(); index++) {
+            char character = file.charAt(index);
+            if (character > ' ' && character < 0x7f && UNSAFE_CHARACTERS.indexOf(character) < 0) {
+                target.append(character);
+            } else {
+                for (byte value : String.valueOf(character).getBytes(StandardCharsets.UTF_8))
+                    target.append('%').append(String.format("%02X", value & 0xff));
+            }
+        }
+        return target.toString();
+    }
+
+    private static String hostHeader(URL url) {
+        if (url.getPort() == -1 || url.getPort() == url.getDefaultPort())
+            return url.getHost();
+        return url.getHost() + ":" + url.getPort();
+    }
+
+    private static int parseStatus(String statusLine) throws IOException {
+        String[] parts = statusLine.split(" ", 3);
+        if (parts.length < 2 || !parts[0].startsWith("HTTP/"))
+            throw new IOException("malformed status line: " + statusLine);
+        try {
+            return Integer.parseInt(parts[1]);
+        } catch (NumberFormatException exception) {
+            throw new IOException("malformed status line: " + statusLine, exception);
+        }
+    }
+
+    private static boolean isKeepAlive(String statusLine, String connectionHeader) {
+        if (connectionHeader != null && connectionHeader.equalsIgnoreCase("close"))
+            return false;
+        if (statusLine.startsWith("HTTP/1.0"))
+            return connectionHeader != null && connectionHeader.equalsIgnoreCase("keep-alive");
+        return true;
+    }
+
+    private static Map<String, String> readHeaders(InputStream in) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) continue;
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            headers.merge(name, value, (first, second) -> first + ", " + second);
+        }
+        if (line == null)
+            throw new EOFException("connection closed inside the response headers");
+        return headers;
+    }
+
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int value;
+        while ((value = in.read()) != -1) {
+            if (value == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+            }
+            if (line.size() >= MAX_LINE_LENGTH)
+                throw new IOException("HTTP line longer than " + MAX_LINE_LENGTH + " bytes");
+            line.write(value);
+        }
+        if (line.size() == 0) return null;
+        throw new EOFException("connection closed inside an HTTP line");
+    }
+
+    private static class HostPool {
+
+        private final Semaphore inFlight;
+        private final Deque<Connection> idle = new ArrayDeque<>();
+
+        HostPool(int maxConnections) {
+            this.inFlight = new Semaphore(maxConnections, true);
+        }
+
+        void acquire() throws InterruptedIOException {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted while waiting for a connection");
+            }
+        }
+
+        void release() {
+            inFlight.release();
+        }
+
+        synchronized Connection pollIdle(long idleTimeout) {
+            long now = System.currentTimeMillis();
+            Connection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (now - connection.lastUsed <= idleTimeout && connection.isUsable())
+                    return connection;
+                connection.closeQuietly();
+            }
+            return null;
+        }
+
+        synchronized void offer(Connection connection) {
+            connection.lastUsed = System.currentTimeMillis();
+            idle.addFirst(connection);
+        }
+
+        synchronized int evict(long idleTimeout) {
+            long now = System.currentTimeMillis();
+            int evicted = 0;
+            Iterator<Connection> iterator = idle.descendingIterator();
+            while (iterator.hasNext()) {
+                Connection connection = iterator.next();
+                if (now - connection.lastUsed > idleTimeout || !connection.isUsable()) {
+                    iterator.remove();
+                    connection.closeQuietly();
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        synchronized int idleCount() {
+            return idle.size();
+        }
+
+        synchronized void closeAll() {
+            Connection connection;
+            while ((connection = idle.pollFirst()) != null)
+                connection.closeQuietly();
+        }
+    }
+
+    private static class Connection {
+
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+        private long lastUsed;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream(), 16 * 1024);
+            this.out = new BufferedOutputStream(socket.getOutputStream(), 16 * 1024);
+            this.lastUsed = System.currentTimeMillis();
+        }
+
+        boolean isUsable() {
+            if (socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown())
+                return false;
+            try {
+                // bytes waiting on an idle connection mean the server sent something unexpected
+                return in.available() == 0;
+            } catch (IOException exception) {
+                return false;
+            }
+        }
+
+        void closeQuietly() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // nothing left to release
+            }
+        }
+    }
+
+    private static class ResponseBody extends FilterInputStream {
+
+        private final Connection connection;
+        private final HostPool pool;
+        private final boolean keepAlive;
+        private boolean exhausted;
+        private boolean closed;
+
+        ResponseBody(InputStream in, Connection connection, HostPool pool, boolean keepAlive) {
+            super(in);
+            this.connection = connection;
+            this.pool = pool;
+            this.keepAlive = keepAlive;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value == -1) exhausted = true;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read == -1) exhausted = true;
+            return read;
+        }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+
+            if (keepAlive && drain()) {
+                pool.offer(connection);
+            } else {
+                connection.closeQuietly();
+            }
+            pool.release();
+        }
+
+        private boolean drain() {
+            if (exhausted) return true;
+            try {
+                byte[] buffer = new byte[4096];
+                long drained = 0;
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    drained += read;
+                    if (drained > DRAIN_LIMIT) return false;
+                }
+                return true;
+            } catch (IOException exception) {
+                return false;
+            }
+        }
+    }
+
+    private static class FixedLengthInputStream extends InputStream {
+
+        private final InputStream in;
+        private long remaining;
+
+        FixedLengthInputStream(InputStream in, long length) {
+            this.in = in;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) return -1;
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read == -1)
+                throw new EOFException("connection closed with " + remaining + " body bytes missing");
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+    }
+
+    private static class ChunkedInputStream extends InputStream {
+
+        private final InputStream in;
+        private long remaining;
+        private boolean firstChunk = true;
+        private boolean finished;
+
+        ChunkedInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (finished) return -1;
+            if (remaining == 0 && !nextChunk()) return -1;
+
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read == -1)
+                throw new EOFException("connection closed inside a chunk");
+            remaining -= read;
+            return read;
+        }
+
+        private boolean nextChunk() throws IOException {
+            if (!firstChunk) readLine(in);
+            firstChunk = false;
+
+            String sizeLine = readLine(in);
+            if (sizeLine == null)
+                throw new EOFException("connection closed before the chunk size");
+
+            int extension = sizeLine.indexOf(';');
+            String size = (extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim();
+            try {
+                remaining = Long.parseLong(size, 16);
+            } catch (NumberFormatException exception) {
+                throw new IOException("malformed chunk size: " + sizeLine, exception);
+            }
+
+            if (remaining == 0) {
+                readHeaders(in);
+                finished = true;
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @summary Frames the bytes written into chunks of at most the buffer size. It never closes the connection,
+     * finish writes the last chunk.
+     */
+    private static class ChunkedOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[RequestBody.BUFFER_SIZE];
+        private int count;
+
+        ChunkedOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            if (count == buffer.length) flushChunk();
+            buffer[count++] = (byte) value;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (count == buffer.length) flushChunk();
+                int copied = Math.min(length, buffer.length - count);
+                System.arraycopy(bytes, offset, buffer, count, copied);
+                count += copied;
+                offset += copied;
+                length -= copied;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            flushChunk();
+            out.flush();
+        }
+
+        void finish() throws IOException {
+            flushChunk();
+            out.write("0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        private void flushChunk() throws IOException {
+            if (count == 0) return;
+            out.write((Integer.toHexString(count) + "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            out.write(buffer, 0, count);
+            out.write(CRLF);
+            count = 0;
+        }
+    }
+
+    private static class StaleConnectionException extends IOException {
+
+        private static final long serialVersionUID = 6120945431265736513L;
+
+        StaleConnectionException(IOException cause) {
+            super(cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package implementations.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class keeps the current ClientConfig of a properties file and replaces it atomically whenever the
+ * file changes on disk. Readers never touch the file: they get the last parsed snapshot. A file that cannot be
+ * parsed is ignored and the previous configuration stays active.
+ */
+public class ReloadableClientConfig implements Supplier<ClientConfig>, Closeable {
+
+    public static final String DEFAULT_FILE = "config.properties";
+
+    private static volatile ReloadableClientConfig shared;
+
+    private final Path path;
+    private final AtomicReference<ClientConfig> current;
+    private final WatchService watchService;
+    private final Thread watcher;
+
+    public ReloadableClientConfig(Path path) throws IOException {
+        this.path = path.toAbsolutePath();
+        this.current = new AtomicReference<>(ClientConfig.load(this.path));
+
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.path.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+
+        this.watcher = new Thread(this::watch, "learning-orchestra-config-watcher");
+        this.watcher.setDaemon(true);
+        this.watcher.start();
+    }
+
+    public static ReloadableClientConfig shared() {
+        ReloadableClientConfig config = shared;
+        if (config == null) {
+            synchronized (ReloadableClientConfig.class) {
+                config = shared;
+                if (config == null) {
+                    try {
+                        config = new ReloadableClientConfig(Paths.get(DEFAULT_FILE));
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException("cannot read " + DEFAULT_FILE, exception);
+                    }
+                    shared = config;
+                }
+            }
+        }
+        return config;
+    }
+
+    @Override
+    public ClientConfig get() {
+        return current.get();
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public boolean reload() {
+        try {
+            current.set(ClientConfig.load(path));
+            return true;
+        } catch (IOException | IllegalArgumentException exception) {
+            exception.printStackTrace();
+            return false;
+        }
+    }
+
+    private void watch() {
+        Path fileName = path.getFileName();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context()))
+                        changed = true;
+                }
+                if (changed) reload();
+
+                if (!key.reset()) return;
+            }
+        } catch (InterruptedException | ClosedWatchServiceException exception) {
+            // the configuration is being closed
+        }
+    }
+
+    @Override
+    public void close() {
+        watcher.interrupt();
+        try {
+            watchService.close();
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+}
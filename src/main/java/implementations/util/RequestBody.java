@@ -0,0 +1,73 @@
+package implementations.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This interface is the body of a request, written by the transport straight to the connection. A body
+ * of unknown length is sent with chunked transfer encoding, this way it never has to be held in memory. A body
+ * can be written more than once, the transport sends it again when a reused connection turns out to be closed.
+ */
+public interface RequestBody {
+
+    int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @return the length in bytes, or -1 when it is only known once the body is written
+     */
+    long contentLength();
+
+    /**
+     * @param outputStream is the connection. It must not be closed by the body.
+     */
+    void writeTo(OutputStream outputStream) throws IOException;
+
+    static RequestBody of(byte[] bytes) {
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return bytes.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream outputStream) throws IOException {
+                outputStream.write(bytes);
+            }
+        };
+    }
+
+    /**
+     * @param channel  is read with positional reads, so its position is left unchanged and it can be shared
+     * @param position is the first byte sent
+     * @param count    is the number of bytes sent
+     * @param chunked  sends the region with chunked transfer encoding instead of a Content-Length header
+     */
+    static RequestBody of(FileChannel channel, long position, long count, boolean chunked) {
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return chunked ? -1 : count;
+            }
+
+            @Override
+            public void writeTo(OutputStream outputStream) throws IOException {
+                ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(BUFFER_SIZE, Math.max(1, count)));
+                long offset = position;
+                long end = position + count;
+                while (offset < end) {
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), end - offset));
+                    int read = channel.read(buffer, offset);
+                    if (read == -1)
+                        throw new IOException("the file ends " + (end - offset) + " bytes before the region");
+                    outputStream.write(buffer.array(), 0, read);
+                    offset += read;
+                }
+            }
+        };
+    }
+}
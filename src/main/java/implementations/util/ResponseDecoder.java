@@ -0,0 +1,14 @@
+package implementations.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Decodes a response body into a typed value while it is read from the connection.
+ */
+public interface ResponseDecoder<T> {
+
+    T decode(InputStream inputStream) throws IOException;
+}
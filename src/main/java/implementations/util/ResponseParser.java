@@ -0,0 +1,103 @@
+package implementations.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This class parses Learning Orchestra responses straight from the response stream, without building an
+ * intermediate String. The rows of the result array can be handed out one by one, this way a page of any size
+ * costs the memory of a single row.
+ */
+public final class ResponseParser {
+
+    public static final String RESULT = "result";
+
+    private ResponseParser() {
+    }
+
+    public static JsonReader newReader(InputStream inputStream) {
+        JsonReader reader = new JsonReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * @param inputStream is the response body
+     * @return the parsed JSON object or null if the body is empty
+     * @throws IOException if the body cannot be read
+     * @summary This method parses a complete response object.
+     */
+    public static JsonObject parseObject(InputStream inputStream) throws IOException {
+        JsonReader reader = newReader(inputStream);
+        if (isEmpty(reader)) return null;
+
+        JsonElement element = new JsonParser().parse(reader);
+        if (!element.isJsonObject())
+            throw new JsonParseException("expected a JSON object but found " + element);
+        return element.getAsJsonObject();
+    }
+
+    /**
+     * @param inputStream is the response body
+     * @param rowConsumer receives every object of the result array, in order
+     * @return the response object without the rows, or null if the body is empty. When the result field is an
+     * array, it is kept in the returned object as an empty array, so callers can tell that rows were streamed.
+     * Otherwise, for instance when the result is an error message, it is returned untouched.
+     * @throws IOException if the body cannot be read
+     * @summary This method streams the rows of a response to a consumer.
+     */
+    public static JsonObject forEachResult(InputStream inputStream, Consumer<JsonObject> rowConsumer)
+            throws IOException {
+        JsonReader reader = newReader(inputStream);
+        if (isEmpty(reader)) return null;
+
+        JsonParser parser = new JsonParser();
+        JsonObject envelope = new JsonObject();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (RESULT.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext())
+                    rowConsumer.accept(nextRow(reader, parser));
+                reader.endArray();
+                envelope.add(RESULT, new JsonArray());
+            } else {
+                envelope.add(name, parser.parse(reader));
+            }
+        }
+        reader.endObject();
+        return envelope;
+    }
+
+    static JsonObject nextRow(JsonReader reader, JsonParser parser) {
+        JsonElement row = parser.parse(reader);
+        if (!row.isJsonObject())
+            throw new JsonParseException("expected a JSON object as result row but found " + row);
+        return row.getAsJsonObject();
+    }
+
+    private static boolean isEmpty(JsonReader reader) throws IOException {
+        try {
+            return reader.peek() == JsonToken.END_DOCUMENT;
+        } catch (EOFException exception) {
+            return true;
+        }
+    }
+}
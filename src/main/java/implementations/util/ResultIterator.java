@@ -0,0 +1,101 @@
+package implementations.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This iterator reads the rows of the result array of an open response one at a time. The fields found
+ * before the result array are available through getEnvelope. The iterator owns the response and must be closed,
+ * which happens automatically once the last row is read.
+ */
+public class ResultIterator implements Iterator<JsonObject>, Closeable {
+
+    private final HttpResponse response;
+    private final JsonReader reader;
+    private final JsonParser parser = new JsonParser();
+    private final JsonObject envelope = new JsonObject();
+    private boolean positioned;
+    private boolean finished;
+    private boolean closed;
+
+    public ResultIterator(HttpResponse response) {
+        this.response = response;
+        this.reader = ResponseParser.newReader(response.getBody());
+    }
+
+    public int getStatus() {
+        return response.getStatus();
+    }
+
+    public JsonObject getEnvelope() {
+        return envelope;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) return false;
+        try {
+            if (!positioned) position();
+            if (!finished && reader.hasNext()) return true;
+            close();
+            return false;
+
+        } catch (IOException exception) {
+            close();
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    @Override
+    public JsonObject next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        return ResponseParser.nextRow(reader, parser);
+    }
+
+    private void position() throws IOException {
+        positioned = true;
+        try {
+            if (reader.peek() == JsonToken.END_DOCUMENT) {
+                finished = true;
+                return;
+            }
+        } catch (EOFException exception) {
+            finished = true;
+            return;
+        }
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (ResponseParser.RESULT.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                return;
+            }
+            envelope.add(name, parser.parse(reader));
+        }
+        finished = true;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        finished = true;
+        try {
+            response.close();
+        } catch (IOException exception) {
+            exception.printStackTrace();
+        }
+    }
+}
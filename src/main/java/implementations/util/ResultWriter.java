@@ -0,0 +1,16 @@
+package implementations.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import com.google.gson.JsonElement;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary Writes the rows of a response result one by one. Closing it ends the response and closes the stream.
+ */
+public interface ResultWriter extends Closeable {
+
+    void write(JsonElement row) throws IOException;
+}
@@ -0,0 +1,103 @@
+package implementations.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Learning Orchestra
+ * @version 1.0
+ * @summary This transport opens a new HttpURLConnection per request, which is the behavior the client always had.
+ * Connection reuse is left to the JDK keep-alive cache, which only works because the response body is drained and
+ * closed when the response is closed.
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    public UrlConnectionTransport() {
+        this(0, 0);
+    }
+
+    public UrlConnectionTransport(int connectTimeout, int readTimeout) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    @Override
+    public HttpResponse execute(String method, URL url, Map<String, String> headers, RequestBody body)
+            throws IOException {
+        // same request target as the pooled transport, HttpURLConnection sends characters such as {} unescaped
+        URL escapedUrl = new URL(url, PooledHttpTransport.requestTarget(url));
+        HttpURLConnection connection = (HttpURLConnection) escapedUrl.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(connectTimeout);
+        connection.setReadTimeout(readTimeout);
+        connection.setUseCaches(false);
+        connection.setDoInput(true);
+
+        for (Map.Entry<String, String> header : headers.entrySet())
+            connection.setRequestProperty(header.getKey(), header.getValue());
+
+        if (body != null) {
+            connection.setDoOutput(true);
+            if (body.contentLength() >= 0)
+                connection.setFixedLengthStreamingMode(body.contentLength());
+            else
+                connection.setChunkedStreamingMode(RequestBody.BUFFER_SIZE);
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                body.writeTo(outputStream);
+            }
+        }
+
+        int status = connection.getResponseCode();
+        InputStream inputStream = status >= HttpURLConnection.HTTP_BAD_REQUEST
+                ? connection.getErrorStream()
+                : connection.getInputStream();
+        if (inputStream == null)
+            inputStream = new ByteArrayInputStream(new byte[0]);
+
+        Map<String, String> responseHeaders = new HashMap<>();
+        for (Map.Entry<String, List<String>> header : connection.getHeaderFields().entrySet()) {
+            if (header.getKey() != null && !header.getValue().isEmpty())
+                responseHeaders.put(header.getKey(), header.getValue().get(0));
+        }
+
+        return new HttpResponse(status, responseHeaders, new DrainingInputStream(inputStream));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static class DrainingInputStream extends FilterInputStream {
+
+        private boolean closed;
+
+        DrainingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            try {
+                byte[] buffer = new byte[4096];
+                while (in.read(buffer) != -1) {
+                    // the JDK only returns the connection to its keep-alive cache once the body is exhausted
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+}
@@ -1,5 +1,12 @@
 package interfaces.dataset;
 
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
 import com.google.gson.JsonObject;
 
 /**
@@ -59,6 +66,44 @@ public interface DatasetInterface {
      */
     JsonObject updateDatasetAsync(String datasetURI, String datasetName);
 
+    /**
+     * @param datasetURI  is the dataset URI used to find the data in the Web
+     * @param datasetName is the dataset name used inside the Learning Orchestra
+     * @return a future completed with the dataset metadata once the dataset is inserted, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method is responsible to insert a dataset from a URI without blocking the caller, neither
+     * during the request nor while Learning Orchestra inserts the dataset.
+     */
+    CompletableFuture<JsonObject> insertDatasetFuture(String datasetURI, String datasetName);
+
+    /**
+     * @param datasetURI  is the new URI to be used to change the dataset
+     * @param datasetName is the dataset name used inside the Learning Orchestra
+     * @return a future completed with the dataset metadata once the dataset is updated, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method is responsible to update a dataset from a URI without blocking the caller.
+     */
+    CompletableFuture<JsonObject> updateDatasetFuture(String datasetURI, String datasetName);
+
+    /**
+     * @param file        is a local CSV file, or JSON lines when its name ends with .jsonl or .ndjson
+     * @param datasetName is the dataset name used inside the Learning Orchestra
+     * @return a JSON object with the dataset metadata once the dataset is inserted, or with an error or warning
+     * message
+     * @summary This method is responsible to insert a dataset from a file of the caller synchronously. The file is
+     * streamed to Learning Orchestra in parts, so it does not have to be published on a web server first.
+     */
+    JsonObject uploadDatasetSync(Path file, String datasetName);
+
+    /**
+     * @param file        is a local CSV file, or JSON lines when its name ends with .jsonl or .ndjson
+     * @param datasetName is the dataset name used inside the Learning Orchestra
+     * @return a future completed with the dataset metadata once the dataset is inserted, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the upload fails.
+     * @summary This method is responsible to insert a dataset from a file of the caller without blocking the caller.
+     */
+    CompletableFuture<JsonObject> uploadDatasetFuture(Path file, String datasetName);
+
 
     /**
      * @param datasetURL is the dataset URL returned by asynchronous method calls of Learning Orchestra API
@@ -70,6 +115,22 @@ public interface DatasetInterface {
      */
     JsonObject await(String datasetURL);
 
+    /**
+     * @param datasetName is the dataset name used inside the Learning Orchestra
+     * @return a future completed with the dataset metadata once the dataset is finished
+     * @summary This method is the non-blocking version of await, i.e., no thread is locked while the dataset
+     * is not finished.
+     */
+    CompletableFuture<JsonObject> awaitFuture(String datasetName);
+
+    /**
+     * @param datasetNames are the names of the datasets to wait for
+     * @return a future per dataset name, completed with the dataset metadata as soon as that dataset is finished
+     * @summary This method waits for many datasets at once without blocking the caller. All pending datasets are
+     * checked together with a single metadata request per polling interval.
+     */
+    Map<String, CompletableFuture<JsonObject>> awaitAll(Collection<String> datasetNames);
+
     /**
      * @param datasetName represents the dataset name
      * @return a JSON object with an error message, a warning message or a correct delete message
@@ -89,6 +150,13 @@ public interface DatasetInterface {
      */
     JsonObject deleteDatasetAsync(String datasetName);
 
+    /**
+     * @param datasetName represents the dataset name
+     * @return a future completed with an error message, a warning message or a correct delete message
+     * @summary This method is responsible for deleting the dataset without blocking the caller.
+     */
+    CompletableFuture<JsonObject> deleteDatasetFuture(String datasetName);
+
     /**
      * @return all datasets metadata stored in Learning Orchestra or an empty result
      * @summary This method retrieves all datasets metadata, i.e., it does not retrieve the dataset content.
@@ -108,6 +176,18 @@ public interface DatasetInterface {
      */
     JsonObject searchDatasetContent(String datasetName, int pageSize, int currentPage);
 
+    /**
+     * @param datasetName is the name of the dataset
+     * @param pageSize    is the number of tuples or registers returned per page
+     * @param currentPage is the page where the search will start
+     * @param rowConsumer receives every tuple or register of the page, one at a time and in order
+     * @return the page response without its tuples or registers, or an error if there is no such dataset.
+     * @summary This method is responsible for retrieving a page of the dataset content as a stream, i.e., the
+     * tuples are handed to the consumer while the response is read, so the page is never held in memory.
+     */
+    JsonObject searchDatasetContent(String datasetName, int pageSize, int currentPage,
+                                    Consumer<JsonObject> rowConsumer);
+
     /**
      * @param datasetName is the name of the dataset
      * @return a page with the first 20 tuples or registers inside or an error if there is no such dataset.
@@ -115,4 +195,22 @@ public interface DatasetInterface {
      */
     JsonObject searchDatasetContent(String datasetName);
 
+    /**
+     * @param datasetName is the name of the dataset
+     * @param batchSize   is the number of tuples or registers requested per page
+     * @return a lazy stream with every tuple or register of the dataset, in order. The stream must be closed
+     * when it is not read until the end.
+     * @summary This method is responsible for walking the whole dataset content. Pages are requested on demand
+     * and the next page is fetched while the current one is consumed, so only two pages are kept in memory.
+     */
+    Stream<JsonObject> streamDatasetContent(String datasetName, int batchSize);
+
+    /**
+     * @param datasetName is the name of the dataset
+     * @return a lazy stream with every tuple or register of the dataset, using the configured page size
+     * @summary This method is responsible for walking the whole dataset content.
+     * @see #streamDatasetContent(String, int)
+     */
+    Stream<JsonObject> streamDatasetContent(String datasetName);
+
 }
@@ -1,6 +1,8 @@
 package interfaces.transform.datatype;
 
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.gson.JsonObject;
 
@@ -10,6 +12,36 @@ public interface DataTypeInterface {
 
     JsonObject updateDatasetTypeSync(String datasetName, Map<String, String> types);
 
+    /**
+     * @param datasetName represents the dataset name
+     * @param types       maps each attribute to its new type
+     * @return a future completed with the dataset metadata once the types are changed, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method changes attribute types without blocking the caller.
+     */
+    CompletableFuture<JsonObject> updateDatasetTypeFuture(String datasetName, Map<String, String> types);
+
+    /**
+     * @param types       maps each dataset name to the new types of its attributes
+     * @param maxInFlight is the maximum number of type change requests sent at the same time
+     * @return the outcome of every dataset, in the order of the given map: its metadata once the types are
+     * changed, or the error or warning message of Learning Orchestra, or of the client when the request failed
+     * @summary This method changes the attribute types of many datasets at once. The requests are sent
+     * concurrently and all pending datasets are checked together with a single metadata request per polling
+     * interval, so the whole update takes about as long as the slowest dataset.
+     */
+    Map<String, JsonObject> updateDatasetTypesSync(Map<String, Map<String, String>> types, int maxInFlight);
+
+    /**
+     * @param types       maps each dataset name to the new types of its attributes
+     * @param maxInFlight is the maximum number of type change requests sent at the same time
+     * @return a future completed with the outcome of every dataset, as returned by updateDatasetTypesSync. It
+     * never completes exceptionally, a failed dataset has the failure message as its outcome.
+     * @summary This method is the non-blocking version of updateDatasetTypesSync.
+     */
+    CompletableFuture<Map<String, JsonObject>> updateDatasetTypesFuture(Map<String, Map<String, String>> types,
+                                                                        int maxInFlight);
+
 
     /**
      * @param datasetURL is the dataset URL returned by asynchronous method calls of Learning Orchestra API
@@ -19,6 +51,21 @@ public interface DataTypeInterface {
      */
     JsonObject await(String datasetURL);
 
+    /**
+     * @param datasetName represents the dataset name
+     * @return a future completed with the dataset metadata once the dataset is transformed
+     * @summary This method is the non-blocking version of await.
+     */
+    CompletableFuture<JsonObject> awaitFuture(String datasetName);
+
+    /**
+     * @param datasetNames are the names of the datasets to wait for
+     * @return a future per dataset name, completed with the dataset metadata as soon as that dataset is finished
+     * @summary This method waits for many datasets at once without blocking the caller. All pending datasets are
+     * checked together with a single metadata request per polling interval.
+     */
+    Map<String, CompletableFuture<JsonObject>> awaitAll(Collection<String> datasetNames);
+
     /**
      * @param datasetName represents the dataset name
      * @return a JSON object with an error message, a warning message or a correct delete message
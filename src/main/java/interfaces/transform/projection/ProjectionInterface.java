@@ -1,7 +1,9 @@
 package interfaces.transform.projection;
 
+import java.util.Collection;
 import java.util.Enumeration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import com.google.gson.JsonObject;
 
@@ -215,6 +217,106 @@ public interface ProjectionInterface {
      */
     JsonObject await(String datasetURL);
 
+    /**
+     * @param datasetName represents the dataset name
+     * @return a future completed with the dataset metadata once the dataset is projected
+     * @summary This method is the non-blocking version of await.
+     */
+    CompletableFuture<JsonObject> awaitFuture(String datasetName);
+
+    /**
+     * @param datasetNames are the names of the datasets to wait for
+     * @return a future per dataset name, completed with the dataset metadata as soon as that dataset is finished
+     * @summary This method waits for many datasets at once without blocking the caller. All pending datasets are
+     * checked together with a single metadata request per polling interval.
+     */
+    Map<String, CompletableFuture<JsonObject>> awaitAll(Collection<String> datasetNames);
+
+    /**
+     * @param datasetName    represents the dataset name
+     * @param datasetOldName represents the existing dataset name
+     * @param attributes     represents the set of attributes to be considered. The remaining attributes are deleted.
+     * @param newDataset     is a boolean responsible to inform if a new dataset will be created or not
+     * @return a future completed with the dataset metadata once the projection is finished, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method eliminates some attributes of a dataset without blocking the caller.
+     */
+    CompletableFuture<JsonObject> removeDatasetAttributesFuture(String datasetName, String datasetOldName,
+                                                                Enumeration<String> attributes,
+                                                                boolean newDataset);
+
+    /**
+     * @param datasetName       represents the dataset name
+     * @param attribute         represents the new attribute
+     * @param existingAttribute represents an existing attribute of the dataset
+     * @param values            maps the existing attribute values into the values of the new attribute
+     * @param newDataset        is a boolean responsible to inform if a new dataset will be created or not
+     * @return a future completed with the metadata of the resulting dataset once it is finished, or with the error
+     * or warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method inserts a single attribute into a dataset without blocking the caller.
+     */
+    CompletableFuture<JsonObject> insertDatasetAttributeFuture(String datasetName, String attribute,
+                                                               String existingAttribute,
+                                                               Map<String, String> values, boolean newDataset);
+
+    /**
+     * @param datasetName   is the name of the dataset
+     * @param sizeReduction is the percentage of reduction. Example 10%, 20%, etc.
+     * @param newDataset    is a boolean responsible to inform if a new dataset will be created or not
+     * @return a future completed with the metadata of the resulting dataset once it is finished, or with the error
+     * or warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method reduces the number of tuples/registers of a dataset without blocking the caller.
+     */
+    CompletableFuture<JsonObject> reduceDatasetFuture(String datasetName, int sizeReduction, boolean newDataset);
+
+    /**
+     * @param datasetName is the name of the dataset
+     * @param sizeEnlarge is the percentage of growth. Example 10%, 20%, 110%, etc.
+     * @param newDataset  is a boolean responsible to inform if a new dataset will be created or not
+     * @return a future completed with the metadata of the resulting dataset once it is finished, or with the error
+     * or warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method enlarges the number of tuples/registers of a dataset without blocking the caller.
+     */
+    CompletableFuture<JsonObject> enlargeDatasetFuture(String datasetName, int sizeEnlarge, boolean newDataset);
+
+    /**
+     * @param datasetNames           represents the list of datasets to be joined
+     * @param datasetName            represents the name of the new dataset
+     * @param removeExistingDatasets is a boolean indicating if the existing datasets must be removed
+     * @return a future completed with the metadata of the new dataset once it is finished, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method joins two or more datasets into a single one without blocking the caller. The joined
+     * datasets may still be pending, they are awaited together first. Many datasets are joined as a tree of
+     * pairwise joins running in parallel.
+     */
+    CompletableFuture<JsonObject> joinDatasetsFuture(Enumeration<String> datasetNames, String datasetName,
+                                                     boolean removeExistingDatasets);
+
+    /**
+     * @param datasetNameOne         represents the first dataset to be joined
+     * @param datasetNameTwo         represents the second dataset to be joined
+     * @param attributesAssociations associates an attribute of the first dataset to an attribute of the second
+     * @param datasetName            represents the name of the new dataset
+     * @param removeExistingDatasets is a boolean indicating if the existing datasets must be removed
+     * @return a future completed with the metadata of the new dataset once it is finished, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method joins two datasets with different attributes without blocking the caller.
+     */
+    CompletableFuture<JsonObject> joinDatasetsFuture(String datasetNameOne, String datasetNameTwo,
+                                                     Map<String, String> attributesAssociations,
+                                                     String datasetName, boolean removeExistingDatasets);
+
+    /**
+     * @param datasetName    is the dataset name
+     * @param attribute      is the attribute that must be updated
+     * @param oldToNewValues associates the old values of the attribute with the new values
+     * @return a future completed with the dataset metadata once the update is finished, or with the error or
+     * warning message returned by Learning Orchestra. It completes exceptionally if the request fails.
+     * @summary This method updates some values of an attribute without blocking the caller.
+     */
+    CompletableFuture<JsonObject> updateDatasetValuesFuture(String datasetName, String attribute,
+                                                            Map<String, String> oldToNewValues);
+
 
     /**
      * @param datasetName represents the dataset name